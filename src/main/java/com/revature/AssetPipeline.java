@@ -0,0 +1,460 @@
+package com.revature;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Build step that turns the front-end sources into cacheable production assets.
+ *
+ * Run by Maven in the prepare-package phase (see pom.xml), it reads index.html, every .css
+ * and every .js file from the source directory and writes to the output directory:
+ * 1. Minified CSS and JavaScript, renamed to {@code name.<content hash>.ext} so they can be
+ *    cached forever; a new build with changed content gets a new name.
+ * 2. index.html, minified, with its asset references rewritten to the fingerprinted names.
+ *    Stylesheets small enough to fit in the first round trip are inlined into a
+ *    {@code <style>} element. For larger ones, only the part before a
+ *    {@code /* critical-end *}{@code /} comment is inlined and the rest is linked.
+ * 3. A gzip variant of every text asset, and a brotli variant when the {@code brotli} command
+ *    is on the PATH (the JDK has no brotli encoder).
+ * 4. manifest.json, mapping each source name to its fingerprinted name.
+ *
+ * Usage:
+ * <pre>{@code
+ *    java -cp target/classes com.revature.AssetPipeline <source dir> <output dir>
+ * }</pre>
+ */
+public class AssetPipeline {
+    private static final Logger logger = Logger.getLogger(AssetPipeline.class.getName());
+
+    static final int INLINE_CSS_BUDGET = 14 * 1024;
+    static final String CRITICAL_END_MARKER = "/* critical-end */";
+    private static final int HASH_LENGTH = 10;
+    private static final Set<String> REGEX_KEYWORDS = new HashSet<>(Arrays.asList(
+        "return", "typeof", "case", "do", "else", "in", "of", "new", "delete", "void", "throw",
+        "instanceof", "yield", "await"));
+    private static final Pattern PRESERVED_HTML = Pattern.compile(
+        "(?is)<(script|style|pre|textarea)\\b.*?</\\1\\s*>");
+
+    private final Path sourceDir;
+    private final Path outputDir;
+    private final boolean brotliAvailable;
+
+    public AssetPipeline(Path sourceDir, Path outputDir) {
+        this(sourceDir, outputDir, isBrotliAvailable());
+    }
+
+    AssetPipeline(Path sourceDir, Path outputDir, boolean brotliAvailable) {
+        this.sourceDir = sourceDir;
+        this.outputDir = outputDir;
+        this.brotliAvailable = brotliAvailable;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: AssetPipeline <source dir> <output dir>");
+        }
+        Map<String, String> manifest = new AssetPipeline(Paths.get(args[0]), Paths.get(args[1])).build();
+        logger.info("Built assets " + manifest);
+    }
+
+    /**
+     * Builds every asset and returns the manifest of source names to output names.
+     */
+    public Map<String, String> build() throws IOException, InterruptedException {
+        Files.createDirectories(outputDir);
+        clean();
+
+        Map<String, String> manifest = new LinkedHashMap<>();
+        Map<String, String> inlineCss = new LinkedHashMap<>();
+        for (Path source : listSources()) {
+            String name = source.getFileName().toString();
+            String content = Files.readString(source);
+            if (name.endsWith(".css")) {
+                String minified = minifyCss(content);
+                int marker = content.indexOf(CRITICAL_END_MARKER);
+                if (minified.length() <= INLINE_CSS_BUDGET) {
+                    inlineCss.put(name, minified);
+                    continue;
+                }
+                if (marker >= 0) {
+                    inlineCss.put(name, minifyCss(content.substring(0, marker)));
+                    minified = minifyCss(content.substring(marker + CRITICAL_END_MARKER.length()));
+                }
+                manifest.put(name, writeFingerprinted(name, minified));
+            } else if (name.endsWith(".js")) {
+                manifest.put(name, writeFingerprinted(name, minifyJs(content)));
+            }
+        }
+
+        Path html = sourceDir.resolve("index.html");
+        if (Files.exists(html)) {
+            String page = rewriteHtml(minifyHtml(Files.readString(html)), manifest, inlineCss);
+            writeWithVariants("index.html", page);
+            manifest.put("index.html", "index.html");
+        }
+
+        StringBuilder json = new StringBuilder("{");
+        for (Map.Entry<String, String> entry : manifest.entrySet()) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            Json.appendString(json, entry.getKey()).append(':');
+            Json.appendString(json, entry.getValue());
+        }
+        Files.writeString(outputDir.resolve("manifest.json"), json.append('}').toString());
+        return manifest;
+    }
+
+    /**
+     * Points asset references in the page at their fingerprinted names and replaces
+     * stylesheet links with inline {@code <style>} elements where the CSS was inlined.
+     */
+    static String rewriteHtml(String html, Map<String, String> manifest, Map<String, String> inlineCss) {
+        for (Map.Entry<String, String> css : inlineCss.entrySet()) {
+            Pattern link = Pattern.compile("<link\\b[^>]*\\bhref=[\"']" + Pattern.quote(css.getKey()) + "[\"'][^>]*>");
+            Matcher matcher = link.matcher(html);
+            String style = "<style>" + css.getValue() + "</style>";
+            if (manifest.containsKey(css.getKey())) {
+                String rest = "<link rel=\"stylesheet\" href=\"" + manifest.get(css.getKey()) + "\">";
+                style = style + rest;
+            }
+            html = matcher.replaceFirst(Matcher.quoteReplacement(style));
+        }
+        for (Map.Entry<String, String> asset : manifest.entrySet()) {
+            Pattern reference = Pattern.compile("\\b(href|src)=([\"'])" + Pattern.quote(asset.getKey()) + "\\2");
+            html = reference.matcher(html).replaceAll("$1=$2" + Matcher.quoteReplacement(asset.getValue()) + "$2");
+        }
+        return html;
+    }
+
+    /**
+     * Removes comments and redundant whitespace from a stylesheet. Quoted strings are kept
+     * as written, and spaces around '+' and '-' are kept because calc() needs them.
+     */
+    static String minifyCss(String css) {
+        StringBuilder out = new StringBuilder(css.length());
+        int i = 0;
+        boolean pendingSpace = false;
+        while (i < css.length()) {
+            char c = css.charAt(i);
+            if (c == '/' && i + 1 < css.length() && css.charAt(i + 1) == '*') {
+                int end = css.indexOf("*/", i + 2);
+                i = end < 0 ? css.length() : end + 2;
+                pendingSpace = true;
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                pendingSpace = true;
+                i++;
+                continue;
+            }
+            if (c == '"' || c == '\'') {
+                int end = skipQuoted(css, i);
+                appendPendingSpace(out, pendingSpace, c);
+                pendingSpace = false;
+                out.append(css, i, end);
+                i = end;
+                continue;
+            }
+            if (c == '}' && out.length() > 0 && out.charAt(out.length() - 1) == ';') {
+                out.setLength(out.length() - 1);
+            }
+            appendPendingSpace(out, pendingSpace, c);
+            pendingSpace = false;
+            out.append(c);
+            i++;
+        }
+        return out.toString().trim();
+    }
+
+    private static void appendPendingSpace(StringBuilder out, boolean pendingSpace, char next) {
+        if (!pendingSpace || out.length() == 0) {
+            return;
+        }
+        char previous = out.charAt(out.length() - 1);
+        if ("{};,>:".indexOf(previous) < 0 && "{};,>!".indexOf(next) < 0) {
+            out.append(' ');
+        }
+    }
+
+    /**
+     * Conservatively minifies JavaScript: comments are removed, each line is trimmed, runs of
+     * spaces are collapsed and blank lines are dropped. Line breaks are kept, so automatic
+     * semicolon insertion behaves exactly as in the source. Strings, template literals and
+     * regular expression literals are copied unchanged.
+     */
+    static String minifyJs(String js) {
+        StringBuilder out = new StringBuilder(js.length());
+        List<Integer> templateDepths = new ArrayList<>();
+        int braceDepth = 0;
+        char lastSignificant = 0;
+        String lastWord = "";
+        boolean pendingSpace = false;
+        boolean pendingNewline = false;
+        int i = 0;
+        while (i < js.length()) {
+            char c = js.charAt(i);
+            char next = i + 1 < js.length() ? js.charAt(i + 1) : 0;
+
+            if (c == '/' && next == '/') {
+                int end = js.indexOf('\n', i);
+                i = end < 0 ? js.length() : end;
+                continue;
+            }
+            if (c == '/' && next == '*') {
+                int end = js.indexOf("*/", i + 2);
+                String comment = js.substring(i, end < 0 ? js.length() : end);
+                if (comment.indexOf('\n') >= 0) {
+                    pendingNewline = true;
+                } else {
+                    pendingSpace = true;
+                }
+                i = end < 0 ? js.length() : end + 2;
+                continue;
+            }
+            if (c == '\n' || c == '\r') {
+                pendingNewline = true;
+                i++;
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                pendingSpace = true;
+                i++;
+                continue;
+            }
+
+            if (pendingNewline && out.length() > 0) {
+                out.append('\n');
+            } else if (pendingSpace && out.length() > 0 && needsSpace(out.charAt(out.length() - 1), c)) {
+                out.append(' ');
+            }
+            pendingNewline = false;
+            pendingSpace = false;
+
+            int end;
+            boolean literal = true;
+            if (c == '"' || c == '\'') {
+                end = skipQuoted(js, i);
+            } else if (c == '`' || (c == '}' && !templateDepths.isEmpty()
+                    && templateDepths.get(templateDepths.size() - 1) == braceDepth)) {
+                if (c == '}') {
+                    templateDepths.remove(templateDepths.size() - 1);
+                }
+                end = skipTemplateChunk(js, i + 1);
+                if (end > 0 && js.startsWith("${", end - 2)) {
+                    templateDepths.add(braceDepth);
+                    literal = false;
+                }
+                end = end < 0 ? js.length() : end;
+            } else if (c == '/' && startsRegex(lastSignificant, lastWord)) {
+                end = skipRegex(js, i);
+            } else {
+                literal = false;
+                if (c == '{') {
+                    braceDepth++;
+                } else if (c == '}') {
+                    braceDepth--;
+                }
+                end = i + 1;
+                if (Character.isJavaIdentifierPart(c)) {
+                    while (end < js.length() && Character.isJavaIdentifierPart(js.charAt(end))) {
+                        end++;
+                    }
+                    lastWord = js.substring(i, end);
+                } else {
+                    lastWord = "";
+                }
+            }
+            out.append(js, i, end);
+            lastSignificant = literal ? 'a' : js.charAt(end - 1);
+            if (literal) {
+                lastWord = "";
+            }
+            i = end;
+        }
+        return out.toString();
+    }
+
+    private static boolean needsSpace(char previous, char next) {
+        boolean previousWord = Character.isJavaIdentifierPart(previous);
+        boolean nextWord = Character.isJavaIdentifierPart(next);
+        return (previousWord && nextWord)
+            || (previous == '+' && next == '+') || (previous == '-' && next == '-')
+            || (previousWord && (next == '"' || next == '\'' || next == '`' || next == '/'))
+            || (nextWord && (previous == '"' || previous == '\'' || previous == '`' || previous == '/'))
+            || "=<>!&|?:+-*/%^,;".indexOf(previous) >= 0 || "=<>!&|?:+-*/%^{".indexOf(next) >= 0;
+    }
+
+    private static boolean startsRegex(char lastSignificant, String lastWord) {
+        return lastSignificant == 0 || "(,=:[!&|?{};+-*%<>~^".indexOf(lastSignificant) >= 0
+            || REGEX_KEYWORDS.contains(lastWord);
+    }
+
+    private static int skipQuoted(String text, int start) {
+        char quote = text.charAt(start);
+        int i = start + 1;
+        while (i < text.length()) {
+            char c = text.charAt(i++);
+            if (c == '\\') {
+                i++;
+            } else if (c == quote || c == '\n') {
+                break;
+            }
+        }
+        return Math.min(i, text.length());
+    }
+
+    /**
+     * Scans template literal text from {@code start} to just past the closing backtick or the
+     * next {@code ${}, returning -1 if the template is unterminated.
+     */
+    private static int skipTemplateChunk(String text, int start) {
+        int i = start;
+        while (i < text.length()) {
+            char c = text.charAt(i++);
+            if (c == '\\') {
+                i++;
+            } else if (c == '`') {
+                return i;
+            } else if (c == '$' && i < text.length() && text.charAt(i) == '{') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipRegex(String text, int start) {
+        int i = start + 1;
+        boolean inClass = false;
+        while (i < text.length()) {
+            char c = text.charAt(i++);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                inClass = true;
+            } else if (c == ']') {
+                inClass = false;
+            } else if (c == '/' && !inClass) {
+                break;
+            } else if (c == '\n') {
+                return i - 1;
+            }
+        }
+        while (i < text.length() && Character.isLetter(text.charAt(i))) {
+            i++;
+        }
+        return Math.min(i, text.length());
+    }
+
+    /**
+     * Removes HTML comments and collapses whitespace between and around tags. The contents
+     * of script, style, pre and textarea elements are left untouched.
+     */
+    static String minifyHtml(String html) {
+        StringBuilder out = new StringBuilder(html.length());
+        Matcher preserved = PRESERVED_HTML.matcher(html);
+        int last = 0;
+        while (preserved.find()) {
+            out.append(collapseHtml(html.substring(last, preserved.start())));
+            out.append(preserved.group());
+            last = preserved.end();
+        }
+        out.append(collapseHtml(html.substring(last)));
+        return out.toString().trim();
+    }
+
+    private static String collapseHtml(String html) {
+        return html.replaceAll("(?s)<!--(?!\\[if).*?-->", "")
+            .replaceAll(">\\s+<", "> <")
+            .replaceAll("\\s{2,}", " ");
+    }
+
+    private String writeFingerprinted(String name, String content) throws IOException, InterruptedException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        int dot = name.lastIndexOf('.');
+        String hash = ContentAddressedStore.sha256Hex(bytes).substring(0, HASH_LENGTH);
+        String fingerprinted = name.substring(0, dot) + "." + hash + name.substring(dot);
+        writeWithVariants(fingerprinted, content);
+        return fingerprinted;
+    }
+
+    private void writeWithVariants(String name, String content) throws IOException, InterruptedException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        Path target = outputDir.resolve(name);
+        Files.write(target, bytes);
+        Files.write(outputDir.resolve(name + ".gz"), gzip(bytes));
+        if (brotliAvailable) {
+            Process brotli = new ProcessBuilder("brotli", "-f", "-q", "11", "-o",
+                outputDir.resolve(name + ".br").toString(), target.toString())
+                .redirectErrorStream(true)
+                .start();
+            if (!brotli.waitFor(60, TimeUnit.SECONDS) || brotli.exitValue() != 0) {
+                brotli.destroyForcibly();
+                throw new IOException("brotli failed for " + name);
+            }
+        }
+    }
+
+    private List<Path> listSources() throws IOException {
+        try (Stream<Path> files = Files.list(sourceDir)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.endsWith(".css") || name.endsWith(".js");
+            }).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private void clean() throws IOException {
+        try (Stream<Path> files = Files.list(outputDir)) {
+            for (Path file : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean isBrotliAvailable() {
+        try {
+            Process process = new ProcessBuilder("brotli", "--version").redirectErrorStream(true).start();
+            boolean finished = process.waitFor(5, TimeUnit.SECONDS);
+            if (finished && process.exitValue() == 0) {
+                return true;
+            }
+            process.destroyForcibly();
+        } catch (Exception e) {
+            // Ignore
+        }
+        logger.info("brotli not found on PATH, skipping .br variants");
+        return false;
+    }
+}
@@ -0,0 +1,509 @@
+package com.revature;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+/**
+ * Memory-mapped full-text index over OpenLibrary works, built by {@link BookIndexWriter}.
+ *
+ * Answers the same title, author, q and isbn queries that {@code searchBooks()} sends to
+ * search.json, and returns search.json-shaped responses. The index lives in a directory of
+ * files that are memory-mapped on open, so start-up is instant and the OS page cache (not the
+ * Java heap) holds the hot parts:
+ *    - lexicon.dat: fixed-width entries (term offset, term length, doc frequency, postings
+ *      offset) sorted by term bytes, searched with a binary search.
+ *    - terms.dat: the UTF-8 term bytes the lexicon points into.
+ *    - postings.dat: per term, varint-encoded {@code (doc gap << 2 | field bits)} entries.
+ *    - docs.idx / docs.dat: per document offset, length and edition count, and the stored
+ *      search.json document. Document ids are assigned by descending edition count.
+ *    - isbn.dat: sorted packed (ISBN, doc) longs.
+ *    - isbn.tbl: an {@link IsbnTable} snapshot from ISBN-13 to the offset of that ISBN's
+ *      first entry in isbn.dat, so an ISBN lookup is one hash probe instead of a binary search.
+ *
+ * Every query term must match. Matches are ranked by the summed inverse document frequency
+ * of the matched terms (title matches count double) plus a popularity boost from the work's
+ * edition count, and only the top {@code offset + limit} documents are kept.
+ *
+ * Because documents are numbered from most to least editions, the popularity boost never
+ * grows along a postings list. Once the best score any later document of the rarest term
+ * could reach (every term matched in its best field, plus the current boost) cannot beat the
+ * worst kept document, the rest of the list is skipped. A common term then costs roughly
+ * {@code offset + limit} matches rather than its whole postings list; numFound is extrapolated
+ * from the part that was read and numFoundExact is false. Queries with a limit of 0 still read
+ * every posting, since counting is all they ask for.
+ */
+public class BookIndex implements SearchSource {
+    static final int FORMAT_VERSION = 3;
+    static final int FIELD_TITLE = 1;
+    static final int FIELD_AUTHOR = 2;
+
+    static final String PROPERTIES_FILE = "index.properties";
+    static final String LEXICON_FILE = "lexicon.dat";
+    static final String TERMS_FILE = "terms.dat";
+    static final String POSTINGS_FILE = "postings.dat";
+    static final String DOCS_FILE = "docs.dat";
+    static final String DOC_INDEX_FILE = "docs.idx";
+    static final String ISBN_FILE = "isbn.dat";
+    static final String ISBN_TABLE_FILE = "isbn.tbl";
+
+    static final int LEXICON_ENTRY_SIZE = 24;
+    static final int DOC_INDEX_ENTRY_SIZE = 16;
+
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+    private static final int MAX_PAGE = 100;
+    private static final double TITLE_WEIGHT = 2.0;
+    private static final double AUTHOR_WEIGHT = 1.0;
+    private static final double POPULARITY_WEIGHT = 0.5;
+    private static final double ISBN_SCORE = 100.0;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final int docCount;
+    private final int termCount;
+    private final MappedFile lexicon;
+    private final MappedFile terms;
+    private final MappedFile postings;
+    private final MappedFile docs;
+    private final MappedFile docIndex;
+    private final MappedFile isbns;
+    private final IsbnTable isbnTable;
+
+    private BookIndex(Properties properties, Path dir) throws IOException {
+        int version = Integer.parseInt(properties.getProperty("version", "0"));
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported index version " + version + " in " + dir);
+        }
+        this.docCount = Integer.parseInt(properties.getProperty("docCount"));
+        this.termCount = Integer.parseInt(properties.getProperty("termCount"));
+        this.lexicon = MappedFile.map(dir.resolve(LEXICON_FILE));
+        this.terms = MappedFile.map(dir.resolve(TERMS_FILE));
+        this.postings = MappedFile.map(dir.resolve(POSTINGS_FILE));
+        this.docs = MappedFile.map(dir.resolve(DOCS_FILE));
+        this.docIndex = MappedFile.map(dir.resolve(DOC_INDEX_FILE));
+        this.isbns = MappedFile.map(dir.resolve(ISBN_FILE));
+        this.isbnTable = IsbnTable.map(dir.resolve(ISBN_TABLE_FILE));
+    }
+
+    public static BookIndex open(Path dir) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(dir.resolve(PROPERTIES_FILE))) {
+            properties.load(in);
+        }
+        return new BookIndex(properties, dir);
+    }
+
+    @Override
+    public CachedResponse search(String canonicalQuery) {
+        Map<String, String> params = new HashMap<>();
+        for (String pair : canonicalQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return CachedResponse.of("application/json", search(params));
+    }
+
+    /**
+     * Runs a search.json query and returns the response body.
+     *
+     * @param params search.json parameters: any of title, author, q and isbn, plus optional
+     *               limit, offset and page.
+     */
+    public byte[] search(Map<String, String> params) {
+        int limit = Math.max(0, Math.min(parseInt(params.get("limit"), DEFAULT_LIMIT), MAX_LIMIT));
+        int offset = parseInt(params.get("offset"), -1);
+        if (offset < 0) {
+            int page = Math.min(Math.max(parseInt(params.get("page"), 1), 1), MAX_PAGE);
+            offset = (page - 1) * limit;
+        }
+        offset = Math.min(offset, MAX_PAGE * MAX_LIMIT);
+
+        // A limit of 0 asks only for numFound, so no result is kept and every posting is counted.
+        TopDocs top = execute(params, limit == 0 ? 0 : offset + limit);
+        StringBuilder json = new StringBuilder(256 + limit * 256);
+        json.append("{\"numFound\":").append(top.totalHits)
+            .append(",\"start\":").append(offset)
+            .append(",\"numFoundExact\":").append(top.exact)
+            .append(",\"num_found\":").append(top.totalHits)
+            .append(",\"docs\":[");
+        int[] ranked = top.ranked();
+        for (int i = offset; i < ranked.length; i++) {
+            if (i > offset) {
+                json.append(',');
+            }
+            json.append(storedDocument(ranked[i]));
+        }
+        json.append("]}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private TopDocs execute(Map<String, String> params, int k) {
+        List<PostingsCursor> cursors = new ArrayList<>();
+        if (!addClause(cursors, params.get("title"), FIELD_TITLE)
+                || !addClause(cursors, params.get("author"), FIELD_AUTHOR)) {
+            return new TopDocs(k);
+        }
+
+        String isbnParam = params.get("isbn");
+        String q = params.get("q");
+        if (isbnParam == null && q != null && Isbn.toIsbn13(q) != Isbn.INVALID) {
+            isbnParam = q;
+            q = null;
+        }
+        if (!addClause(cursors, q, FIELD_TITLE | FIELD_AUTHOR)) {
+            return new TopDocs(k);
+        }
+
+        int[] candidates = null;
+        if (isbnParam != null) {
+            long isbn13 = Isbn.toIsbn13(isbnParam);
+            if (isbn13 == Isbn.INVALID) {
+                return new TopDocs(k);
+            }
+            candidates = docsForIsbn(isbn13);
+        } else if (cursors.isEmpty()) {
+            return new TopDocs(k);
+        }
+
+        cursors.sort((a, b) -> Integer.compare(a.docFreq, b.docFreq));
+        TopDocs top = new TopDocs(k);
+        if (candidates != null) {
+            for (int doc : candidates) {
+                collectIfMatched(top, cursors, doc, ISBN_SCORE, editions(doc));
+            }
+            return top;
+        }
+
+        double maxTermScore = 0;
+        for (PostingsCursor cursor : cursors) {
+            maxTermScore += cursor.idf * ((cursor.fieldMask & FIELD_TITLE) != 0 ? TITLE_WEIGHT : AUTHOR_WEIGHT);
+        }
+        PostingsCursor lead = cursors.get(0);
+        long scanned = 0;
+        while (lead.next()) {
+            int editions = editions(lead.doc);
+            if (k > 0 && !top.competitive(maxTermScore + POPULARITY_WEIGHT * Math.log1p(editions), lead.doc)) {
+                top.extrapolate(scanned, lead.remaining + 1L);
+                break;
+            }
+            scanned++;
+            collectIfMatched(top, cursors, lead.doc, 0, editions);
+        }
+        return top;
+    }
+
+    private void collectIfMatched(TopDocs top, List<PostingsCursor> cursors, int doc, double baseScore, int editions) {
+        double score = baseScore;
+        for (PostingsCursor cursor : cursors) {
+            if (!cursor.advance(doc) || cursor.doc != doc || (cursor.fields & cursor.fieldMask) == 0) {
+                return;
+            }
+            score += cursor.idf * ((cursor.fields & cursor.fieldMask & FIELD_TITLE) != 0 ? TITLE_WEIGHT : AUTHOR_WEIGHT);
+        }
+        top.collect(doc, score + POPULARITY_WEIGHT * Math.log1p(editions));
+    }
+
+    private int editions(int doc) {
+        return docIndex.getInt((long) doc * DOC_INDEX_ENTRY_SIZE + 12);
+    }
+
+    /**
+     * Adds one cursor per token of {@code text}, restricted to {@code fieldMask}.
+     *
+     * @return false if some token does not occur in the index, meaning nothing can match.
+     */
+    private boolean addClause(List<PostingsCursor> cursors, String text, int fieldMask) {
+        if (text == null) {
+            return true;
+        }
+        for (String token : tokenize(text)) {
+            long entry = findTerm(token.getBytes(StandardCharsets.UTF_8));
+            if (entry < 0) {
+                return false;
+            }
+            int docFreq = lexicon.getInt(entry + 12);
+            long postingsOffset = lexicon.getLong(entry + 16);
+            double idf = Math.log(1 + (double) docCount / docFreq);
+            cursors.add(new PostingsCursor(postings, postingsOffset, docFreq, fieldMask, idf));
+        }
+        return true;
+    }
+
+    /**
+     * Binary searches the lexicon for a term.
+     *
+     * @return the byte offset of its lexicon entry, or -1 if absent.
+     */
+    long findTerm(byte[] term) {
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long entry = (long) mid * LEXICON_ENTRY_SIZE;
+            int cmp = compareTerm(lexicon.getLong(entry), lexicon.getInt(entry + 8), term);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    private int compareTerm(long offset, int length, byte[] term) {
+        int common = Math.min(length, term.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = (terms.get(offset + i) & 0xFF) - (term[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - term.length;
+    }
+
+    private int[] docsForIsbn(long isbn13) {
+        long offset = isbnTable.get(isbn13);
+        if (offset == IsbnTable.NOT_FOUND) {
+            return new int[0];
+        }
+        long body = isbns.getLong(offset) >>> 32;
+        int[] docs = new int[4];
+        int found = 0;
+        for (; offset < isbns.size(); offset += Long.BYTES) {
+            long packed = isbns.getLong(offset);
+            if ((packed >>> 32) != body) {
+                break;
+            }
+            if (found == docs.length) {
+                docs = Arrays.copyOf(docs, found * 2);
+            }
+            docs[found++] = (int) packed;
+        }
+        return Arrays.copyOf(docs, found);
+    }
+
+    private String storedDocument(int doc) {
+        long entry = (long) doc * DOC_INDEX_ENTRY_SIZE;
+        long offset = docIndex.getLong(entry);
+        int length = docIndex.getInt(entry + 8);
+        byte[] bytes = new byte[length];
+        docs.get(offset, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Packs an ISBN-13 and a document id into one sortable long. Every ISBN-13 is 978 or 979
+     * followed by nine digits and a check digit, so dropping the check digit and the 978 base
+     * leaves a value below 2^31 for the high half, and the doc id fills the low half.
+     */
+    static long packIsbn(long isbn13, int doc) {
+        long body = isbn13 / 10 - 978_000_000_000L;
+        return (body << 32) | (doc & 0xFFFFFFFFL);
+    }
+
+    static long unpackIsbn(long packed) {
+        return Isbn.withCheckDigit((packed >>> 32) + 978_000_000_000L);
+    }
+
+    /**
+     * Splits text into lower-case, accent-free letter/digit tokens. Shared by the writer and
+     * the query side so both agree on what a term is.
+     */
+    static List<String> tokenize(String text) {
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+            .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Sequential reader over one term's postings.
+     */
+    private static class PostingsCursor {
+        private final MappedFile postings;
+        private final int docFreq;
+        private final int fieldMask;
+        private final double idf;
+        private long position;
+        private int remaining;
+        int doc = -1;
+        int fields;
+
+        PostingsCursor(MappedFile postings, long offset, int docFreq, int fieldMask, double idf) {
+            this.postings = postings;
+            this.position = offset;
+            this.remaining = docFreq;
+            this.docFreq = docFreq;
+            this.fieldMask = fieldMask;
+            this.idf = idf;
+        }
+
+        boolean next() {
+            if (remaining == 0) {
+                doc = Integer.MAX_VALUE;
+                return false;
+            }
+            remaining--;
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = postings.get(position++);
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            doc = (doc < 0 ? 0 : doc) + (int) (value >>> 2);
+            fields = (int) (value & 3);
+            return true;
+        }
+
+        /**
+         * Moves forward to the first posting at or after {@code target}.
+         */
+        boolean advance(int target) {
+            while (doc < target) {
+                if (!next()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Bounded min-heap keeping the {@code k} best-scoring documents.
+     */
+    private static class TopDocs {
+        private final int[] docs;
+        private final double[] scores;
+        private int size;
+        long totalHits;
+        boolean exact = true;
+
+        TopDocs(int k) {
+            this.docs = new int[Math.max(k, 0)];
+            this.scores = new double[Math.max(k, 0)];
+        }
+
+        void collect(int doc, double score) {
+            totalHits++;
+            if (size < docs.length) {
+                docs[size] = doc;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (size > 0 && better(score, doc, scores[0], docs[0])) {
+                docs[0] = doc;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Returns whether a document with this score would be kept.
+         */
+        boolean competitive(double score, int doc) {
+            return size < docs.length || (size > 0 && better(score, doc, scores[0], docs[0]));
+        }
+
+        /**
+         * Turns {@link #totalHits} into an estimate after a postings list was cut short,
+         * assuming the unread postings match at the same rate as the read ones.
+         */
+        void extrapolate(long scanned, long unscanned) {
+            totalHits += Math.round((double) totalHits * unscanned / scanned);
+            exact = false;
+        }
+
+        /**
+         * Returns the collected documents from best to worst.
+         */
+        int[] ranked() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> a.equals(b) ? 0 : better(scores[a], docs[a], scores[b], docs[b]) ? -1 : 1);
+            int[] ranked = new int[size];
+            for (int i = 0; i < size; i++) {
+                ranked[i] = docs[order[i]];
+            }
+            return ranked;
+        }
+
+        private static boolean better(double scoreA, int docA, double scoreB, int docB) {
+            return scoreA > scoreB || (scoreA == scoreB && docA < docB);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!better(scores[parent], docs[parent], scores[i], docs[i])) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int worst = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && better(scores[worst], docs[worst], scores[left], docs[left])) {
+                    worst = left;
+                }
+                if (right < size && better(scores[worst], docs[worst], scores[right], docs[right])) {
+                    worst = right;
+                }
+                if (worst == i) {
+                    return;
+                }
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int doc = docs[a];
+            docs[a] = docs[b];
+            docs[b] = doc;
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
@@ -0,0 +1,674 @@
+package com.revature;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds a {@link BookIndex} from OpenLibrary's bulk authors, works and editions dumps.
+ *
+ * Each work becomes one search document. The dumps are streamed in three passes:
+ * 1. Authors: author names are packed into a single byte table keyed by their OL number.
+ * 2. Works: each work gets a document id, its title and author names are tokenized, and
+ *    (term, doc, field) postings are buffered and spilled to disk as sorted runs.
+ * 3. Editions: ISBNs are normalized to ISBN-13 and mapped to their work's document, edition
+ *    counts are tallied for ranking, and missing covers and years are filled in. The ISBNs
+ *    are then sorted and indexed by an off-heap {@link IsbnTable}.
+ * Documents are then renumbered by descending edition count, the sorted runs are merged into
+ * delta-encoded postings under the new numbering, the lexicon is sorted, and the stored
+ * documents are written out as ready-to-serve search.json entries.
+ *
+ * Usage:
+ * <pre>{@code
+ *    java -cp target/classes com.revature.BookIndexWriter <authors dump> <works dump> <editions dump> <index dir>
+ * }</pre>
+ */
+public class BookIndexWriter {
+    private static final Logger logger = Logger.getLogger(BookIndexWriter.class.getName());
+    private static final Pattern YEAR = Pattern.compile("\\b(\\d{4})\\b");
+    private static final int MAX_STORED_AUTHORS = 10;
+    private static final int DEFAULT_RUN_SIZE = 8 * 1024 * 1024;
+
+    private final Path indexDir;
+    private final Path tempDir;
+    private final int runSize;
+
+    private final AuthorNames authorNames = new AuthorNames();
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final List<Path> runs = new ArrayList<>();
+    private long[] postingBuffer;
+    private int postingCount;
+
+    private int[] docByWorkNumber = new int[1024];
+    private int docCount;
+    private int[] coverIds = new int[1024];
+    private short[] years = new short[1024];
+    private int[] editionCounts = new int[1024];
+    private long[] firstIsbns = new long[1024];
+    private long[] isbnPostings = new long[1024];
+    private int isbnCount;
+    private DataOutputStream storedDocs;
+
+    public BookIndexWriter(Path indexDir) {
+        this(indexDir, DEFAULT_RUN_SIZE);
+    }
+
+    BookIndexWriter(Path indexDir, int runSize) {
+        this.indexDir = indexDir;
+        this.tempDir = indexDir.resolve("tmp");
+        this.runSize = runSize;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4) {
+            throw new IllegalArgumentException(
+                "Usage: BookIndexWriter <authors dump> <works dump> <editions dump> <index dir>");
+        }
+        new BookIndexWriter(Paths.get(args[3])).build(Paths.get(args[0]), Paths.get(args[1]), Paths.get(args[2]));
+    }
+
+    public void build(Path authorsDump, Path worksDump, Path editionsDump) throws IOException {
+        Files.createDirectories(tempDir);
+        postingBuffer = new long[runSize];
+        try {
+            readAuthors(authorsDump);
+            readWorks(worksDump);
+            readEditions(editionsDump);
+
+            spillRun();
+            int[] newDocIds = popularityOrder();
+            long[] termPostings = mergeRuns(newDocIds);
+            writeLexicon(termPostings);
+            writeDocuments(newDocIds);
+            writeIsbns(newDocIds);
+            writeProperties();
+        } finally {
+            deleteTemp();
+        }
+        logger.info("Indexed " + docCount + " works, " + terms.size() + " terms, " + isbnCount + " ISBNs");
+    }
+
+    private void readAuthors(Path dump) throws IOException {
+        try (DumpReader reader = new DumpReader(dump)) {
+            DumpReader.Record record;
+            while ((record = reader.next()) != null) {
+                if (!"/type/author".equals(record.type)) {
+                    continue;
+                }
+                int number = olNumber(record.key);
+                Map<String, Object> json = parseOrNull(record.json);
+                if (number < 0 || json == null || !(json.get("name") instanceof String)) {
+                    continue;
+                }
+                authorNames.put(number, (String) json.get("name"));
+            }
+        }
+    }
+
+    private void readWorks(Path dump) throws IOException {
+        try (DumpReader reader = new DumpReader(dump);
+                DataOutputStream docs = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(tempDir.resolve("docs.tmp")), 1 << 16))) {
+            storedDocs = docs;
+            DumpReader.Record record;
+            while ((record = reader.next()) != null) {
+                if (!"/type/work".equals(record.type)) {
+                    continue;
+                }
+                int number = olNumber(record.key);
+                Map<String, Object> json = parseOrNull(record.json);
+                if (number < 0 || json == null || !(json.get("title") instanceof String)) {
+                    continue;
+                }
+                addWork(number, record.key, json);
+            }
+        }
+    }
+
+    private void addWork(int workNumber, String key, Map<String, Object> json) throws IOException {
+        int doc = docCount++;
+        docByWorkNumber = grow(docByWorkNumber, workNumber + 1);
+        docByWorkNumber[workNumber] = doc + 1;
+        coverIds = grow(coverIds, docCount);
+        years = grow(years, docCount);
+        editionCounts = grow(editionCounts, docCount);
+        firstIsbns = grow(firstIsbns, docCount);
+
+        String title = (String) json.get("title");
+        if (json.get("subtitle") instanceof String) {
+            title = title + ": " + json.get("subtitle");
+        }
+        List<String> authors = new ArrayList<>();
+        for (Object entry : listOf(json.get("authors"))) {
+            Object author = entry instanceof Map ? ((Map<?, ?>) entry).get("author") : null;
+            if (author == null) {
+                author = entry;
+            }
+            Object authorKey = author instanceof Map ? ((Map<?, ?>) author).get("key") : null;
+            String name = authorKey instanceof String ? authorNames.get(olNumber((String) authorKey)) : null;
+            if (name != null && authors.size() < MAX_STORED_AUTHORS) {
+                authors.add(name);
+            }
+        }
+        coverIds[doc] = firstCover(json.get("covers"));
+        years[doc] = parseYear(json.get("first_publish_date"));
+
+        Map<String, Integer> fields = new LinkedHashMap<>();
+        for (String token : BookIndex.tokenize(title)) {
+            fields.merge(token, BookIndex.FIELD_TITLE, (a, b) -> a | b);
+        }
+        for (String author : authors) {
+            for (String token : BookIndex.tokenize(author)) {
+                fields.merge(token, BookIndex.FIELD_AUTHOR, (a, b) -> a | b);
+            }
+        }
+        for (Map.Entry<String, Integer> field : fields.entrySet()) {
+            addPosting(termId(field.getKey()), doc, field.getValue());
+        }
+
+        storedDocs.writeUTF(key);
+        storedDocs.writeUTF(truncate(title));
+        storedDocs.writeByte(authors.size());
+        for (String author : authors) {
+            storedDocs.writeUTF(truncate(author));
+        }
+    }
+
+    private void readEditions(Path dump) throws IOException {
+        try (DumpReader reader = new DumpReader(dump)) {
+            DumpReader.Record record;
+            while ((record = reader.next()) != null) {
+                if (!"/type/edition".equals(record.type)) {
+                    continue;
+                }
+                Map<String, Object> json = parseOrNull(record.json);
+                if (json == null) {
+                    continue;
+                }
+                for (Object work : listOf(json.get("works"))) {
+                    Object workKey = work instanceof Map ? ((Map<?, ?>) work).get("key") : null;
+                    int number = workKey instanceof String ? olNumber((String) workKey) : -1;
+                    if (number >= 0 && number < docByWorkNumber.length && docByWorkNumber[number] > 0) {
+                        addEdition(docByWorkNumber[number] - 1, json);
+                    }
+                }
+            }
+        }
+    }
+
+    private void addEdition(int doc, Map<String, Object> json) {
+        editionCounts[doc]++;
+        if (coverIds[doc] == 0) {
+            coverIds[doc] = firstCover(json.get("covers"));
+        }
+        short year = parseYear(json.get("publish_date"));
+        if (year > 0 && (years[doc] == 0 || year < years[doc])) {
+            years[doc] = year;
+        }
+
+        List<Object> isbns = new ArrayList<>(listOf(json.get("isbn_13")));
+        isbns.addAll(listOf(json.get("isbn_10")));
+        for (Object value : isbns) {
+            long isbn13 = value instanceof String ? Isbn.toIsbn13((String) value) : Isbn.INVALID;
+            if (isbn13 == Isbn.INVALID) {
+                continue;
+            }
+            if (firstIsbns[doc] == 0) {
+                firstIsbns[doc] = isbn13;
+            }
+            isbnPostings = grow(isbnPostings, isbnCount + 1);
+            isbnPostings[isbnCount++] = BookIndex.packIsbn(isbn13, doc);
+        }
+    }
+
+    private int termId(String term) {
+        Integer id = termIds.get(term);
+        if (id == null) {
+            id = terms.size();
+            termIds.put(term, id);
+            terms.add(term);
+        }
+        return id;
+    }
+
+    private void addPosting(int termId, int doc, int fields) throws IOException {
+        if (postingCount == postingBuffer.length) {
+            spillRun();
+        }
+        postingBuffer[postingCount++] = ((long) termId << 32) | ((long) doc << 2) | fields;
+    }
+
+    /**
+     * Sorts the buffered postings by (term, doc) and writes them out as one run file.
+     */
+    private void spillRun() throws IOException {
+        if (postingCount == 0) {
+            return;
+        }
+        Arrays.sort(postingBuffer, 0, postingCount);
+        Path run = tempDir.resolve("run-" + runs.size() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+            for (int i = 0; i < postingCount; i++) {
+                out.writeLong(postingBuffer[i]);
+            }
+        }
+        runs.add(run);
+        postingCount = 0;
+    }
+
+    /**
+     * Numbers documents by descending edition count, keeping dump order between equal counts.
+     * {@link BookIndex} relies on this order to stop reading a term's postings once no later
+     * document can score high enough to enter the top results.
+     *
+     * @return the new id of every document, indexed by its id in dump order.
+     */
+    private int[] popularityOrder() {
+        long[] order = new long[docCount];
+        for (int doc = 0; doc < docCount; doc++) {
+            order[doc] = ((long) (Integer.MAX_VALUE - editionCounts[doc]) << 32) | doc;
+        }
+        Arrays.sort(order);
+        int[] newDocIds = new int[docCount];
+        for (int i = 0; i < docCount; i++) {
+            newDocIds[(int) order[i]] = i;
+        }
+        return newDocIds;
+    }
+
+    /**
+     * K-way merges the sorted runs into postings.dat. The runs are sorted by term, so each
+     * term's postings arrive together; they are renumbered, re-sorted by new document id and
+     * gap-encoded.
+     *
+     * @return for each term id, its postings offset and document frequency packed as
+     *         consecutive entries (offset at 2 * id, frequency at 2 * id + 1).
+     */
+    private long[] mergeRuns(int[] newDocIds) throws IOException {
+        long[] termPostings = new long[terms.size() * 2];
+        long[] termDocs = new long[1024];
+        int termDocCount = 0;
+        PriorityQueue<RunCursor> queue = new PriorityQueue<>();
+        List<RunCursor> cursors = new ArrayList<>();
+        try (IndexOutput out = new IndexOutput(indexDir.resolve(BookIndex.POSTINGS_FILE))) {
+            for (Path run : runs) {
+                RunCursor cursor = new RunCursor(run);
+                cursors.add(cursor);
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+
+            int currentTerm = -1;
+            while (!queue.isEmpty()) {
+                RunCursor cursor = queue.poll();
+                long posting = cursor.current;
+                int term = (int) (posting >>> 32);
+                int doc = (int) ((posting & 0xFFFFFFFFL) >>> 2);
+                if (term != currentTerm) {
+                    if (currentTerm >= 0) {
+                        writeTermPostings(out, termPostings, currentTerm, termDocs, termDocCount);
+                    }
+                    currentTerm = term;
+                    termDocCount = 0;
+                }
+                termDocs = grow(termDocs, termDocCount + 1);
+                termDocs[termDocCount++] = ((long) newDocIds[doc] << 2) | (posting & 3);
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+            if (currentTerm >= 0) {
+                writeTermPostings(out, termPostings, currentTerm, termDocs, termDocCount);
+            }
+        } finally {
+            for (RunCursor cursor : cursors) {
+                cursor.close();
+            }
+        }
+        return termPostings;
+    }
+
+    private static void writeTermPostings(IndexOutput out, long[] termPostings, int term, long[] docs, int count)
+            throws IOException {
+        Arrays.sort(docs, 0, count);
+        termPostings[2 * term] = out.position();
+        termPostings[2 * term + 1] = count;
+        long previousDoc = 0;
+        for (int i = 0; i < count; i++) {
+            long doc = docs[i] >>> 2;
+            out.writeVarLong(((doc - previousDoc) << 2) | (docs[i] & 3));
+            previousDoc = doc;
+        }
+    }
+
+    private void writeLexicon(long[] termPostings) throws IOException {
+        int count = terms.size();
+        byte[][] termBytes = new byte[count][];
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            termBytes[i] = terms.get(i).getBytes(StandardCharsets.UTF_8);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(termBytes[a], termBytes[b]));
+
+        try (IndexOutput termsOut = new IndexOutput(indexDir.resolve(BookIndex.TERMS_FILE));
+                IndexOutput lexicon = new IndexOutput(indexDir.resolve(BookIndex.LEXICON_FILE))) {
+            for (int id : order) {
+                lexicon.writeLong(termsOut.position());
+                lexicon.writeInt(termBytes[id].length);
+                lexicon.writeInt((int) termPostings[2 * id + 1]);
+                lexicon.writeLong(termPostings[2 * id]);
+                termsOut.write(termBytes[id]);
+            }
+        }
+    }
+
+    /**
+     * Writes docs.dat in dump order and docs.idx in the new document order.
+     */
+    private void writeDocuments(int[] newDocIds) throws IOException {
+        long[] offsets = new long[docCount];
+        int[] lengths = new int[docCount];
+        int[] editions = new int[docCount];
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(tempDir.resolve("docs.tmp")), 1 << 16));
+                IndexOutput docs = new IndexOutput(indexDir.resolve(BookIndex.DOCS_FILE))) {
+            StringBuilder json = new StringBuilder(256);
+            for (int doc = 0; doc < docCount; doc++) {
+                String key = in.readUTF();
+                String title = in.readUTF();
+                int authorCount = in.readUnsignedByte();
+
+                json.setLength(0);
+                json.append("{\"key\":");
+                Json.appendString(json, key);
+                json.append(",\"title\":");
+                Json.appendString(json, title);
+                if (authorCount > 0) {
+                    json.append(",\"author_name\":[");
+                    for (int i = 0; i < authorCount; i++) {
+                        if (i > 0) {
+                            json.append(',');
+                        }
+                        Json.appendString(json, in.readUTF());
+                    }
+                    json.append(']');
+                }
+                if (coverIds[doc] > 0) {
+                    json.append(",\"cover_i\":").append(coverIds[doc]);
+                }
+                if (years[doc] > 0) {
+                    json.append(",\"first_publish_year\":").append(years[doc]);
+                }
+                json.append(",\"edition_count\":").append(editionCounts[doc]);
+                if (firstIsbns[doc] != 0) {
+                    json.append(",\"isbn\":[\"").append(Isbn.format(firstIsbns[doc])).append("\"]");
+                }
+                json.append('}');
+
+                byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+                int newDoc = newDocIds[doc];
+                offsets[newDoc] = docs.position();
+                lengths[newDoc] = bytes.length;
+                editions[newDoc] = editionCounts[doc];
+                docs.write(bytes);
+            }
+        }
+        try (IndexOutput docIndex = new IndexOutput(indexDir.resolve(BookIndex.DOC_INDEX_FILE))) {
+            for (int doc = 0; doc < docCount; doc++) {
+                docIndex.writeLong(offsets[doc]);
+                docIndex.writeInt(lengths[doc]);
+                docIndex.writeInt(editions[doc]);
+            }
+        }
+    }
+
+    /**
+     * Writes the sorted (ISBN, doc) postings and an {@link IsbnTable} snapshot mapping each
+     * distinct ISBN to the offset of its first posting.
+     */
+    private void writeIsbns(int[] newDocIds) throws IOException {
+        for (int i = 0; i < isbnCount; i++) {
+            long posting = isbnPostings[i];
+            isbnPostings[i] = (posting & ~0xFFFFFFFFL) | newDocIds[(int) posting];
+        }
+        Arrays.sort(isbnPostings, 0, isbnCount);
+        long[] keys = new long[isbnCount];
+        long[] offsets = new long[isbnCount];
+        int distinct = 0;
+        try (IndexOutput out = new IndexOutput(indexDir.resolve(BookIndex.ISBN_FILE))) {
+            long previous = -1;
+            for (int i = 0; i < isbnCount; i++) {
+                long posting = isbnPostings[i];
+                if (posting == previous) {
+                    continue;
+                }
+                if (previous < 0 || (posting >>> 32) != (previous >>> 32)) {
+                    keys[distinct] = BookIndex.unpackIsbn(posting);
+                    offsets[distinct++] = out.position();
+                }
+                out.writeLong(posting);
+                previous = posting;
+            }
+        }
+        IsbnTable.build(keys, offsets, distinct).save(indexDir.resolve(BookIndex.ISBN_TABLE_FILE));
+    }
+
+    private void writeProperties() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("version", String.valueOf(BookIndex.FORMAT_VERSION));
+        properties.setProperty("docCount", String.valueOf(docCount));
+        properties.setProperty("termCount", String.valueOf(terms.size()));
+        try (OutputStream out = Files.newOutputStream(indexDir.resolve(BookIndex.PROPERTIES_FILE))) {
+            properties.store(out, "Book Finder search index");
+        }
+    }
+
+    private void deleteTemp() throws IOException {
+        if (!Files.exists(tempDir)) {
+            return;
+        }
+        List<Path> paths = new ArrayList<>();
+        Files.walk(tempDir).forEach(paths::add);
+        Collections.reverse(paths);
+        for (Path path : paths) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Extracts the numeric part of an OpenLibrary key such as "/works/OL45804W".
+     */
+    static int olNumber(String key) {
+        int start = key.lastIndexOf("OL");
+        if (start < 0) {
+            return -1;
+        }
+        long number = 0;
+        int i = start + 2;
+        for (; i < key.length() && Character.isDigit(key.charAt(i)); i++) {
+            number = number * 10 + (key.charAt(i) - '0');
+            if (number > Integer.MAX_VALUE - 1) {
+                return -1;
+            }
+        }
+        return i == start + 2 ? -1 : (int) number;
+    }
+
+    private static Map<String, Object> parseOrNull(String json) {
+        try {
+            return Json.parseObject(json);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> listOf(Object value) {
+        return value instanceof List ? (List<Object>) value : Collections.emptyList();
+    }
+
+    private static int firstCover(Object covers) {
+        for (Object cover : listOf(covers)) {
+            if (cover instanceof Long && (Long) cover > 0 && (Long) cover <= Integer.MAX_VALUE) {
+                return (int) (long) (Long) cover;
+            }
+        }
+        return 0;
+    }
+
+    private static short parseYear(Object date) {
+        if (!(date instanceof String)) {
+            return 0;
+        }
+        Matcher matcher = YEAR.matcher((String) date);
+        return matcher.find() ? Short.parseShort(matcher.group(1)) : 0;
+    }
+
+    private static String truncate(String value) {
+        return value.length() > 1000 ? value.substring(0, 1000) : value;
+    }
+
+    private static int[] grow(int[] array, int minSize) {
+        return minSize <= array.length ? array : Arrays.copyOf(array, Math.max(minSize, array.length * 2));
+    }
+
+    private static short[] grow(short[] array, int minSize) {
+        return minSize <= array.length ? array : Arrays.copyOf(array, Math.max(minSize, array.length * 2));
+    }
+
+    private static long[] grow(long[] array, int minSize) {
+        return minSize <= array.length ? array : Arrays.copyOf(array, Math.max(minSize, array.length * 2));
+    }
+
+    /**
+     * Author names packed into one growable byte array, addressed by OL author number.
+     */
+    private static class AuthorNames {
+        private byte[] bytes = new byte[1 << 16];
+        private int length;
+        private int[] offsets = new int[1024];
+
+        void put(int number, String name) {
+            byte[] encoded = truncate(name).getBytes(StandardCharsets.UTF_8);
+            int size = Math.min(encoded.length, 0xFFFF);
+            if (length + 2 + size > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(length + 2 + size, bytes.length * 2));
+            }
+            offsets = grow(offsets, number + 1);
+            offsets[number] = length + 1;
+            bytes[length++] = (byte) (size >>> 8);
+            bytes[length++] = (byte) size;
+            System.arraycopy(encoded, 0, bytes, length, size);
+            length += size;
+        }
+
+        String get(int number) {
+            if (number < 0 || number >= offsets.length || offsets[number] == 0) {
+                return null;
+            }
+            int offset = offsets[number] - 1;
+            int size = ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+            return new String(bytes, offset + 2, size, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static class RunCursor implements Comparable<RunCursor>, Closeable {
+        private final DataInputStream in;
+        long current;
+
+        RunCursor(Path run) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), 1 << 16));
+        }
+
+        boolean advance() throws IOException {
+            try {
+                current = in.readLong();
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public int compareTo(RunCursor other) {
+            return Long.compare(current, other.current);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Buffered big-endian output stream that tracks its absolute position.
+     */
+    private static class IndexOutput implements Closeable {
+        private final OutputStream out;
+        private long position;
+
+        IndexOutput(Path path) throws IOException {
+            this.out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16);
+        }
+
+        long position() {
+            return position;
+        }
+
+        void write(byte[] bytes) throws IOException {
+            out.write(bytes);
+            position += bytes.length;
+        }
+
+        void writeInt(int value) throws IOException {
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                out.write(value >>> shift);
+            }
+            position += Integer.BYTES;
+        }
+
+        void writeLong(long value) throws IOException {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        void writeVarLong(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+                position++;
+            }
+            out.write((int) value);
+            position++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
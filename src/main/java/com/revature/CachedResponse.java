@@ -0,0 +1,57 @@
+package com.revature;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An upstream response body held in both identity and gzip encodings.
+ *
+ * The body is compressed once when the response is first fetched, so serving the same
+ * cached result to many clients never pays the compression cost again.
+ */
+public final class CachedResponse {
+    private final String contentType;
+    private final byte[] body;
+    private final byte[] gzipBody;
+
+    private CachedResponse(String contentType, byte[] body, byte[] gzipBody) {
+        this.contentType = contentType;
+        this.body = body;
+        this.gzipBody = gzipBody;
+    }
+
+    public static CachedResponse of(String contentType, byte[] body) {
+        return new CachedResponse(contentType, body, gzip(body));
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public byte[] body() {
+        return body;
+    }
+
+    public byte[] gzipBody() {
+        return gzipBody;
+    }
+
+    /**
+     * Approximate number of bytes this response occupies in the cache.
+     */
+    public long weight() {
+        return (long) body.length + gzipBody.length;
+    }
+
+    static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,223 @@
+package com.revature;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Size-bounded on-disk blob store addressed by the SHA-256 of each blob's content.
+ *
+ * Blobs live at {@code <root>/<first two hex digits>/<hash>} and are written to a temporary
+ * file first and then moved into place, so a reader never sees a partially written blob.
+ * Storing identical content twice keeps a single copy, and because a hash always names the
+ * same bytes, it doubles as a strong HTTP ETag.
+ *
+ * When the total size exceeds {@code maxBytes} the least recently used blobs are deleted.
+ * Recency is kept in memory and mirrored into each file's modification time (at most once
+ * per {@link #TOUCH_INTERVAL_MILLIS}), so the LRU order survives a restart.
+ */
+public class ContentAddressedStore {
+    private static final Logger logger = Logger.getLogger(ContentAddressedStore.class.getName());
+    static final long TOUCH_INTERVAL_MILLIS = 10 * 60 * 1000L;
+
+    private final Path root;
+    private final Path tempDir;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(1024, 0.75f, true);
+    private long totalBytes;
+
+    public ContentAddressedStore(Path root, long maxBytes) throws IOException {
+        this.root = root;
+        this.tempDir = root.resolve("tmp");
+        this.maxBytes = maxBytes;
+        Files.createDirectories(tempDir);
+        load();
+    }
+
+    /**
+     * Returns the path of a stored blob and marks it as recently used, or null if the blob is
+     * not in the store.
+     */
+    public Path get(String hash) {
+        Entry entry;
+        long now = System.currentTimeMillis();
+        boolean touch;
+        synchronized (this) {
+            entry = entries.get(hash);
+            if (entry == null) {
+                return null;
+            }
+            touch = now - entry.lastTouched > TOUCH_INTERVAL_MILLIS;
+            if (touch) {
+                entry.lastTouched = now;
+            }
+        }
+        Path path = blobPath(hash);
+        if (touch) {
+            try {
+                Files.setLastModifiedTime(path, FileTime.fromMillis(now));
+            } catch (IOException e) {
+                forgetIfMissing(hash);
+                return null;
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Stores {@code content} if it is not already present and returns its hash.
+     */
+    public String put(byte[] content) throws IOException {
+        String hash = sha256Hex(content);
+        if (get(hash) != null) {
+            return hash;
+        }
+
+        Path path = blobPath(hash);
+        Files.createDirectories(path.getParent());
+        Path temp = Files.createTempFile(tempDir, hash, ".part");
+        try {
+            Files.write(temp, content);
+            // Blob files are only created and deleted under the lock, so an eviction can never
+            // delete a file that a concurrent put of the same content has just moved into place.
+            synchronized (this) {
+                try {
+                    Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+                }
+                if (!entries.containsKey(hash)) {
+                    entries.put(hash, new Entry(content.length, System.currentTimeMillis()));
+                    totalBytes += content.length;
+                }
+                delete(evictOverBudget(hash));
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return hash;
+    }
+
+    /**
+     * Drops a blob whose file has disappeared, so that the next {@link #get(String)} misses
+     * instead of returning a path that cannot be read. Does nothing if the file is back
+     * because the same content was stored again in the meantime.
+     */
+    public synchronized void forgetIfMissing(String hash) {
+        if (Files.exists(blobPath(hash))) {
+            return;
+        }
+        Entry entry = entries.remove(hash);
+        if (entry != null) {
+            totalBytes -= entry.size;
+        }
+    }
+
+    public synchronized long sizeInBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int count() {
+        return entries.size();
+    }
+
+    private List<String> evictOverBudget(String keep) {
+        List<String> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Entry> eldest = it.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            totalBytes -= eldest.getValue().size;
+            evicted.add(eldest.getKey());
+            it.remove();
+        }
+        return evicted;
+    }
+
+    private void delete(List<String> hashes) {
+        for (String hash : hashes) {
+            try {
+                Files.deleteIfExists(blobPath(hash));
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Could not evict " + hash, e);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the in-memory LRU order from the blobs on disk, oldest modification time first,
+     * and clears out temporary files left by an interrupted write.
+     */
+    private void load() throws IOException {
+        try (Stream<Path> temps = Files.list(tempDir)) {
+            for (Path temp : temps.collect(Collectors.toList())) {
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        List<Map.Entry<String, BasicFileAttributes>> found = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(root, 2)) {
+            for (Path path : paths.collect(Collectors.toList())) {
+                if (path.startsWith(tempDir) || path.getParent() == null || path.getParent().equals(root)) {
+                    continue;
+                }
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                if (attributes.isRegularFile()) {
+                    found.add(Map.entry(path.getFileName().toString(), attributes));
+                }
+            }
+        }
+        found.sort(Comparator.comparing(blob -> blob.getValue().lastModifiedTime()));
+        for (Map.Entry<String, BasicFileAttributes> blob : found) {
+            long size = blob.getValue().size();
+            entries.put(blob.getKey(), new Entry(size, blob.getValue().lastModifiedTime().toMillis()));
+            totalBytes += size;
+        }
+        delete(evictOverBudget(null));
+    }
+
+    private Path blobPath(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    static String sha256Hex(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class Entry {
+        final long size;
+        long lastTouched;
+
+        Entry(long size, long lastTouched) {
+            this.size = size;
+            this.lastTouched = lastTouched;
+        }
+    }
+}
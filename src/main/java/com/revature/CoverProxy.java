@@ -0,0 +1,357 @@
+package com.revature;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * Caching proxy for OpenLibrary cover images.
+ *
+ * Serves {@code /covers/{cover_i}-{S|M|L}.jpg}. The first request for a cover fetches the
+ * full-size image from covers.openlibrary.org once, renders a JPEG thumbnail for every
+ * {@link Size}, and stores them in a {@link ContentAddressedStore}. Concurrent first requests
+ * for the same cover share that one fetch. A small ref file per (cover, size) records which
+ * blob to serve, so the mapping survives restarts.
+ *
+ * Responses carry the blob's SHA-256 as a strong ETag and are marked immutable for a year,
+ * since a cover id always names the same image. Conditional requests are answered with 304.
+ * Bodies are streamed from disk with {@link FileChannel#transferTo}, which never loads the
+ * image onto the Java heap.
+ */
+public class CoverProxy implements HttpHandler {
+    private static final Logger logger = Logger.getLogger(CoverProxy.class.getName());
+
+    static final String PATH = "/covers/";
+    private static final Pattern COVER_PATH = Pattern.compile("^/covers/(\\d{1,12})-([SML])\\.jpg$");
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final float JPEG_QUALITY = 0.85f;
+    private static final String JPEG = "image/jpeg";
+
+    /**
+     * Thumbnail sizes, by maximum width in pixels. Images are never scaled up.
+     */
+    enum Size {
+        S(96), M(240), L(480);
+
+        final int width;
+
+        Size(int width) {
+            this.width = width;
+        }
+    }
+
+    private final ContentAddressedStore store;
+    private final Path refsDir;
+    private final String upstreamBase;
+    private final HttpClient httpClient;
+    private final SingleFlight<Long, Map<Size, String>> fetches = new SingleFlight<>();
+
+    public CoverProxy(Path cacheDir, long maxBytes, String upstreamBase) throws IOException {
+        this.store = new ContentAddressedStore(cacheDir.resolve("blobs"), maxBytes);
+        this.refsDir = cacheDir.resolve("refs");
+        this.upstreamBase = upstreamBase.endsWith("/") ? upstreamBase.substring(0, upstreamBase.length() - 1) : upstreamBase;
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+        Files.createDirectories(refsDir);
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+            String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                sendStatus(exchange, 405, "no-store");
+                return;
+            }
+            Matcher matcher = COVER_PATH.matcher(exchange.getRequestURI().getPath());
+            if (!matcher.matches()) {
+                sendStatus(exchange, 404, "no-store");
+                return;
+            }
+            long coverId = Long.parseLong(matcher.group(1));
+            Size size = Size.valueOf(matcher.group(2));
+
+            for (int attempt = 1; ; attempt++) {
+                Path blob = lookup(coverId, size);
+                if (blob == null) {
+                    Map<Size, String> hashes = fetches.execute(coverId, () -> fetchAndStore(coverId));
+                    blob = hashes == null ? null : store.get(hashes.get(size));
+                }
+                if (blob == null) {
+                    sendStatus(exchange, 404, "public, max-age=3600");
+                    return;
+                }
+                try {
+                    sendBlob(exchange, blob);
+                    return;
+                } catch (NoSuchFileException e) {
+                    // The blob was evicted after the lookup. Forget it so the next attempt
+                    // drops the ref and fetches the cover again.
+                    store.forgetIfMissing(blob.getFileName().toString());
+                    if (attempt == 2) {
+                        throw e;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendStatus(exchange, 503, "no-store");
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Cover request failed for " + exchange.getRequestURI(), e);
+            sendStatus(exchange, 502, "no-store");
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Unexpected error serving cover", e);
+            sendStatus(exchange, 500, "no-store");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Returns the cached blob for a cover size, or null if it has not been fetched yet or its
+     * blob has since been evicted.
+     */
+    private Path lookup(long coverId, Size size) throws IOException {
+        Path ref = refsDir.resolve(coverId + "-" + size);
+        String hash;
+        try {
+            hash = new String(Files.readAllBytes(ref), StandardCharsets.US_ASCII);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        Path blob = store.get(hash);
+        if (blob == null) {
+            Files.deleteIfExists(ref);
+        }
+        return blob;
+    }
+
+    /**
+     * Downloads the full-size cover, stores a thumbnail for every size and records the refs.
+     *
+     * @return the blob hash per size, or null if OpenLibrary has no such cover.
+     */
+    private Map<Size, String> fetchAndStore(long coverId) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(upstreamBase + "/b/id/" + coverId + "-L.jpg?default=false"))
+            .timeout(Duration.ofSeconds(30))
+            .GET()
+            .build();
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() == 404) {
+            return null;
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("Cover upstream responded with status " + response.statusCode());
+        }
+
+        Map<Size, byte[]> thumbnails = renderThumbnails(response.body());
+        Map<Size, String> hashes = new EnumMap<>(Size.class);
+        for (Map.Entry<Size, byte[]> thumbnail : thumbnails.entrySet()) {
+            String hash = store.put(thumbnail.getValue());
+            hashes.put(thumbnail.getKey(), hash);
+            writeRef(coverId + "-" + thumbnail.getKey(), hash);
+        }
+        return hashes;
+    }
+
+    private void writeRef(String refName, String hash) throws IOException {
+        Path temp = Files.createTempFile(refsDir, refName, ".part");
+        try {
+            Files.write(temp, hash.getBytes(StandardCharsets.US_ASCII));
+            try {
+                Files.move(temp, refsDir.resolve(refName), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, refsDir.resolve(refName), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Renders one JPEG per size. Sizes at least as wide as the original reuse the original
+     * bytes if it is a JPEG, and a full-size re-encoding otherwise.
+     *
+     * When ImageIO cannot decode the image at all (it rejects some CMYK and YCCK JPEGs), every
+     * size is the original bytes, so the cover is still stored and never fetched again.
+     */
+    static Map<Size, byte[]> renderThumbnails(byte[] original) throws IOException {
+        Map<Size, byte[]> thumbnails = new EnumMap<>(Size.class);
+        BufferedImage image = decode(original);
+        byte[] fullSize = image == null || JPEG.equals(contentType(original, original.length))
+            ? original
+            : null;
+        for (Size size : Size.values()) {
+            if (image == null || image.getWidth() <= size.width) {
+                if (fullSize == null) {
+                    fullSize = encodeJpeg(scaleToWidth(image, image.getWidth()));
+                }
+                thumbnails.put(size, fullSize);
+            } else {
+                thumbnails.put(size, encodeJpeg(scaleToWidth(image, size.width)));
+            }
+        }
+        return thumbnails;
+    }
+
+    private static BufferedImage decode(byte[] original) {
+        try {
+            return ImageIO.read(new ByteArrayInputStream(original));
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.FINE, "Could not decode cover image, storing it unchanged", e);
+            return null;
+        }
+    }
+
+    /**
+     * Names the image type of a blob from its leading bytes. Only covers that could not be
+     * decoded are stored as something other than the JPEG this proxy renders.
+     */
+    static String contentType(byte[] head, int length) {
+        if (length >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return JPEG;
+        }
+        if (length >= 8 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G') {
+            return "image/png";
+        }
+        if (length >= 6 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8') {
+            return "image/gif";
+        }
+        if (length >= 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return "image/webp";
+        }
+        return "application/octet-stream";
+    }
+
+    /**
+     * Scales down in repeated halving steps before the final resize, which keeps bilinear
+     * filtering from skipping pixels and aliasing on large reductions.
+     */
+    static BufferedImage scaleToWidth(BufferedImage source, int width) {
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            BufferedImage step = new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, currentWidth, currentHeight);
+                graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IOException("No JPEG encoder available");
+        }
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOut = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(imageOut);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static void sendBlob(HttpExchange exchange, Path blob) throws IOException {
+        String etag = "\"" + blob.getFileName() + "\"";
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("ETag", etag);
+        headers.set("Cache-Control", IMMUTABLE);
+
+        if (HttpHeaderValues.etagMatches(exchange.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+
+        try (FileChannel file = FileChannel.open(blob, StandardOpenOption.READ)) {
+            long length = file.size();
+            ByteBuffer head = ByteBuffer.allocate(12);
+            while (head.hasRemaining() && file.read(head, head.position()) > 0) {
+                // Read until the buffer is full or the file ends.
+            }
+            headers.set("Content-Type", contentType(head.array(), head.position()));
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                headers.set("Content-Length", String.valueOf(length));
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, length);
+            try (OutputStream out = exchange.getResponseBody();
+                    WritableByteChannel channel = Channels.newChannel(out)) {
+                long position = 0;
+                while (position < length) {
+                    position += file.transferTo(position, length - position, channel);
+                }
+            }
+        }
+    }
+
+    private static void sendStatus(HttpExchange exchange, int status, String cacheControl) throws IOException {
+        if (exchange.getResponseCode() != -1) {
+            return;
+        }
+        exchange.getResponseHeaders().set("Cache-Control", cacheControl);
+        exchange.sendResponseHeaders(status, -1);
+    }
+}
@@ -0,0 +1,68 @@
+package com.revature;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams records out of an OpenLibrary bulk dump file.
+ *
+ * Dump files (https://openlibrary.org/developers/dumps) hold one record per line as five
+ * tab-separated columns: type, key, revision, last_modified and the record JSON. Files ending
+ * in ".gz" are decompressed on the fly, so the multi-gigabyte dumps never need to be unpacked
+ * or held in memory.
+ */
+public class DumpReader implements Closeable {
+    private final BufferedReader reader;
+
+    public DumpReader(Path path) throws IOException {
+        InputStream in = Files.newInputStream(path);
+        if (path.getFileName().toString().endsWith(".gz")) {
+            in = new GZIPInputStream(in, 1 << 16);
+        }
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 20);
+    }
+
+    /**
+     * Returns the next record, or null at end of file. Lines that do not have five columns
+     * are skipped.
+     */
+    public Record next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            int typeEnd = line.indexOf('\t');
+            int keyEnd = typeEnd < 0 ? -1 : line.indexOf('\t', typeEnd + 1);
+            int revisionEnd = keyEnd < 0 ? -1 : line.indexOf('\t', keyEnd + 1);
+            int modifiedEnd = revisionEnd < 0 ? -1 : line.indexOf('\t', revisionEnd + 1);
+            if (modifiedEnd < 0) {
+                continue;
+            }
+            return new Record(line.substring(0, typeEnd), line.substring(typeEnd + 1, keyEnd),
+                line.substring(modifiedEnd + 1));
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    public static final class Record {
+        public final String type;
+        public final String key;
+        public final String json;
+
+        Record(String type, String key, String json) {
+            this.type = type;
+            this.key = key;
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.revature;
+
+import java.util.Locale;
+
+/**
+ * Parsing of the request headers that the gateway's handlers negotiate on.
+ *
+ * Accept-Encoding decides which stored variant of a body is sent, and If-None-Match decides
+ * whether a body is sent at all. Each handler picks its own variants and validators; this
+ * class only answers whether the client's header allows or matches them.
+ */
+final class HttpHeaderValues {
+    private HttpHeaderValues() {
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        return acceptsEncoding(acceptEncoding, "gzip");
+    }
+
+    /**
+     * Returns whether an Accept-Encoding header allows the given content coding and does not
+     * exclude it with q=0. An entry naming the coding decides; "*" only applies when no entry
+     * names it.
+     */
+    static boolean acceptsEncoding(String acceptEncoding, String contentCoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (contentCoding.equals(name)) {
+                return !excluded(parts);
+            }
+            if ("*".equals(name) && wildcard == null) {
+                wildcard = !excluded(parts);
+            }
+        }
+        return wildcard != null && wildcard;
+    }
+
+    private static boolean excluded(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            if (parts[i].trim().replace(" ", "").matches("q=0(\\.0*)?")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether an If-None-Match header lists {@code etag}, weakly or strongly, or is "*".
+     */
+    static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(etag) || trimmed.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,110 @@
+package com.revature;
+
+/**
+ * ISBN parsing and normalization helpers.
+ *
+ * Every ISBN is normalized to its 13-digit form and handled as a primitive {@code long},
+ * so ISBN-10 and ISBN-13 spellings of the same book share one key and no strings are
+ * needed on lookup paths.
+ */
+public final class Isbn {
+    /** Returned by the parse methods when the input is not a valid ISBN. */
+    public static final long INVALID = -1L;
+
+    private Isbn() {
+    }
+
+    /**
+     * Parses an ISBN-10 or ISBN-13, ignoring hyphens and spaces, and returns it as an ISBN-13.
+     *
+     * @return the ISBN-13 as a number, or {@link #INVALID} if the input is malformed or its
+     *         check digit does not match.
+     */
+    public static long toIsbn13(CharSequence value) {
+        if (value == null) {
+            return INVALID;
+        }
+        long digits = 0;
+        int count = 0;
+        boolean checkIsX = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '-' || c == ' ') {
+                continue;
+            }
+            if (checkIsX) {
+                return INVALID;
+            }
+            if (c >= '0' && c <= '9') {
+                digits = digits * 10 + (c - '0');
+            } else if ((c == 'X' || c == 'x') && count == 9) {
+                checkIsX = true;
+            } else {
+                return INVALID;
+            }
+            if (++count > 13) {
+                return INVALID;
+            }
+        }
+
+        if (count == 13 && !checkIsX) {
+            long body = digits / 10;
+            return isbn13CheckDigit(body) == digits % 10 && isBookland(body) ? digits : INVALID;
+        }
+        if (count == 10) {
+            long body = checkIsX ? digits : digits / 10;
+            long check = checkIsX ? 10 : digits % 10;
+            if (isbn10CheckDigit(body) != check) {
+                return INVALID;
+            }
+            return withCheckDigit(978_000_000_000L + body);
+        }
+        return INVALID;
+    }
+
+    /**
+     * Formats a numeric ISBN-13 as its 13-digit string.
+     */
+    public static String format(long isbn13) {
+        String digits = Long.toString(isbn13);
+        if (digits.length() >= 13) {
+            return digits;
+        }
+        StringBuilder padded = new StringBuilder(13);
+        for (int i = digits.length(); i < 13; i++) {
+            padded.append('0');
+        }
+        return padded.append(digits).toString();
+    }
+
+    /**
+     * Rebuilds a full ISBN-13 from its first twelve digits by appending the check digit.
+     */
+    static long withCheckDigit(long body12) {
+        return body12 * 10 + isbn13CheckDigit(body12);
+    }
+
+    private static boolean isBookland(long body12) {
+        long prefix = body12 / 1_000_000_000L;
+        return prefix == 978 || prefix == 979;
+    }
+
+    private static long isbn13CheckDigit(long body12) {
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            int digit = (int) (body12 % 10);
+            sum += (i % 2 == 0) ? digit * 3 : digit;
+            body12 /= 10;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    private static long isbn10CheckDigit(long body9) {
+        int sum = 0;
+        for (int weight = 2; weight <= 10; weight++) {
+            sum += (int) (body9 % 10) * weight;
+            body9 /= 10;
+        }
+        return (11 - sum % 11) % 11;
+    }
+}
@@ -0,0 +1,214 @@
+package com.revature;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Off-heap open-addressing hash table from ISBN-13 to record offset.
+ *
+ * A {@code HashMap<String, ...>} keyed by ISBN costs well over 100 bytes of heap per entry and
+ * gives the garbage collector tens of millions of objects to trace. This table instead stores
+ * each entry as two primitive longs (key, value) in 16-byte slots outside the Java heap:
+ *    - keys are ISBN-13s from {@link Isbn#toIsbn13(CharSequence)}, so ISBN-10 and ISBN-13
+ *      spellings share one slot, and 0 marks an empty slot;
+ *    - collisions are resolved with linear probing at a load factor of at most 0.7;
+ *    - {@link #get(long)} hashes, probes and compares primitives only, so lookups allocate nothing.
+ *
+ * A table is either built in direct memory with {@link #build(long[], long[], int)} or mapped
+ * read-only from a snapshot written by {@link #save(Path)}. Mapping a snapshot does no parsing
+ * or rehashing, so a restarted process can serve lookups as soon as the file is mapped.
+ *
+ * Slots are split across 1 GiB buffers so tables larger than 2 GiB are supported.
+ */
+public final class IsbnTable {
+    /** Returned by {@link #get(long)} when the ISBN is not in the table. */
+    public static final long NOT_FOUND = -1L;
+
+    private static final int MAGIC = 0x4953424E; // "ISBN"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32; // magic, version, capacity, size, 8 reserved bytes
+    private static final int SLOT_SIZE = 16;
+    private static final int SLOTS_PER_SEGMENT_BITS = 26;
+    private static final long SLOTS_PER_SEGMENT = 1L << SLOTS_PER_SEGMENT_BITS;
+    private static final double MAX_LOAD_FACTOR = 0.7;
+
+    private final ByteBuffer[] segments;
+    private final long mask;
+    private final long size;
+
+    private IsbnTable(ByteBuffer[] segments, long capacity, long size) {
+        this.segments = segments;
+        this.mask = capacity - 1;
+        this.size = size;
+    }
+
+    /**
+     * Builds a table from parallel key and value arrays. When a key occurs more than once the
+     * first value is kept.
+     *
+     * @throws IllegalArgumentException if a key is not a positive ISBN-13 or a value is negative.
+     */
+    public static IsbnTable build(long[] keys, long[] values, int count) {
+        long capacity = capacityFor(count);
+        ByteBuffer[] segments = new ByteBuffer[segmentCount(capacity)];
+        for (int i = 0; i < segments.length; i++) {
+            long slots = Math.min(SLOTS_PER_SEGMENT, capacity - ((long) i << SLOTS_PER_SEGMENT_BITS));
+            segments[i] = ByteBuffer.allocateDirect((int) (slots * SLOT_SIZE)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        IsbnTable table = new IsbnTable(segments, capacity, 0);
+        long size = 0;
+        for (int i = 0; i < count; i++) {
+            if (keys[i] <= 0 || values[i] < 0) {
+                throw new IllegalArgumentException("Invalid entry " + keys[i] + " -> " + values[i]);
+            }
+            if (table.insert(keys[i], values[i])) {
+                size++;
+            }
+        }
+        return new IsbnTable(segments, capacity, size);
+    }
+
+    /**
+     * Maps a snapshot written by {@link #save(Path)} read-only into memory.
+     */
+    public static IsbnTable map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new IOException("Truncated ISBN table snapshot: " + path);
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not an ISBN table snapshot: " + path);
+            }
+            long capacity = header.getLong();
+            long size = header.getLong();
+            if (Long.bitCount(capacity) != 1 || channel.size() != HEADER_SIZE + capacity * SLOT_SIZE) {
+                throw new IOException("Corrupt ISBN table snapshot: " + path);
+            }
+
+            ByteBuffer[] segments = new ByteBuffer[segmentCount(capacity)];
+            for (int i = 0; i < segments.length; i++) {
+                long firstSlot = (long) i << SLOTS_PER_SEGMENT_BITS;
+                long slots = Math.min(SLOTS_PER_SEGMENT, capacity - firstSlot);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                    HEADER_SIZE + firstSlot * SLOT_SIZE, slots * SLOT_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new IsbnTable(segments, capacity, size);
+        }
+    }
+
+    /**
+     * Writes the table to {@code path} as a snapshot that {@link #map(Path)} can load. The file
+     * is written next to the target and moved into place, so readers never see a partial file.
+     */
+    public void save(Path path) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putLong(mask + 1).putLong(size).rewind();
+            writeFully(channel, header);
+            for (ByteBuffer segment : segments) {
+                writeFully(channel, segment.duplicate().clear());
+            }
+            channel.force(false);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the value stored for an ISBN-13, or {@link #NOT_FOUND}.
+     */
+    public long get(long isbn13) {
+        if (isbn13 <= 0) {
+            return NOT_FOUND;
+        }
+        long slot = mix(isbn13) & mask;
+        while (true) {
+            long key = keyAt(slot);
+            if (key == isbn13) {
+                return valueAt(slot);
+            }
+            if (key == 0) {
+                return NOT_FOUND;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long capacity() {
+        return mask + 1;
+    }
+
+    private boolean insert(long key, long value) {
+        long slot = mix(key) & mask;
+        while (true) {
+            long existing = keyAt(slot);
+            if (existing == key) {
+                return false;
+            }
+            if (existing == 0) {
+                ByteBuffer segment = segments[(int) (slot >>> SLOTS_PER_SEGMENT_BITS)];
+                int offset = slotOffset(slot);
+                segment.putLong(offset, key);
+                segment.putLong(offset + Long.BYTES, value);
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private long keyAt(long slot) {
+        return segments[(int) (slot >>> SLOTS_PER_SEGMENT_BITS)].getLong(slotOffset(slot));
+    }
+
+    private long valueAt(long slot) {
+        return segments[(int) (slot >>> SLOTS_PER_SEGMENT_BITS)].getLong(slotOffset(slot) + Long.BYTES);
+    }
+
+    private static int slotOffset(long slot) {
+        return (int) (slot & (SLOTS_PER_SEGMENT - 1)) * SLOT_SIZE;
+    }
+
+    private static long capacityFor(int count) {
+        long needed = (long) Math.ceil(Math.max(count, 1) / MAX_LOAD_FACTOR);
+        return Math.max(16, Long.highestOneBit(needed - 1) << 1);
+    }
+
+    private static int segmentCount(long capacity) {
+        return (int) ((capacity + SLOTS_PER_SEGMENT - 1) >>> SLOTS_PER_SEGMENT_BITS);
+    }
+
+    /**
+     * Finalizer from MurmurHash3. ISBNs are dense and share long prefixes, so their low bits
+     * alone would cluster badly under linear probing.
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
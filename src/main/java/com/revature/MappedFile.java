@@ -0,0 +1,93 @@
+package com.revature;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only memory mapping of a file of any size.
+ *
+ * A single {@link MappedByteBuffer} is limited to 2 GiB, so larger index files are mapped as
+ * a series of 1 GiB segments and addressed with {@code long} positions. Reads go straight to
+ * the page cache: nothing is copied onto the Java heap and no objects are allocated.
+ */
+public final class MappedFile {
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final MappedByteBuffer[] segments;
+    private final long size;
+
+    private MappedFile(MappedByteBuffer[] segments, long size) {
+        this.segments = segments;
+        this.size = size;
+    }
+
+    public static MappedFile map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int count = (int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS);
+            MappedByteBuffer[] segments = new MappedByteBuffer[Math.max(count, 1)];
+            for (int i = 0; i < count; i++) {
+                long start = (long) i << SEGMENT_BITS;
+                long length = Math.min(SEGMENT_SIZE, size - start);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                segments[i].order(ByteOrder.BIG_ENDIAN);
+            }
+            if (count == 0) {
+                segments[0] = channel.map(FileChannel.MapMode.READ_ONLY, 0, 0);
+            }
+            return new MappedFile(segments, size);
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public byte get(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & SEGMENT_MASK));
+    }
+
+    public int getInt(long position) {
+        int offset = (int) (position & SEGMENT_MASK);
+        if (offset <= SEGMENT_SIZE - Integer.BYTES) {
+            return segments[(int) (position >>> SEGMENT_BITS)].getInt(offset);
+        }
+        int value = 0;
+        for (int i = 0; i < Integer.BYTES; i++) {
+            value = (value << 8) | (get(position + i) & 0xFF);
+        }
+        return value;
+    }
+
+    public long getLong(long position) {
+        int offset = (int) (position & SEGMENT_MASK);
+        if (offset <= SEGMENT_SIZE - Long.BYTES) {
+            return segments[(int) (position >>> SEGMENT_BITS)].getLong(offset);
+        }
+        return ((long) getInt(position) << 32) | (getInt(position + Integer.BYTES) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Copies {@code length} bytes starting at {@code position} into {@code dest}.
+     */
+    public void get(long position, byte[] dest, int destOffset, int length) {
+        while (length > 0) {
+            MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_BITS)];
+            int offset = (int) (position & SEGMENT_MASK);
+            int chunk = Math.min(length, segment.capacity() - offset);
+            ByteBuffer view = segment.duplicate();
+            view.position(offset);
+            view.get(dest, destOffset, chunk);
+            position += chunk;
+            destOffset += chunk;
+            length -= chunk;
+        }
+    }
+}
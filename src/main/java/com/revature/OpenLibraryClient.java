@@ -0,0 +1,67 @@
+package com.revature;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Thin blocking client for the OpenLibrary search API.
+ *
+ * A single {@link HttpClient} is shared by every request so upstream connections are pooled,
+ * and a semaphore caps how many requests may be outstanding against OpenLibrary at once.
+ * Callers that exceed the cap simply wait their turn instead of flooding the upstream.
+ */
+public class OpenLibraryClient implements SearchSource {
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final Semaphore permits;
+    private final Duration requestTimeout;
+
+    public OpenLibraryClient(String baseUrl, int maxConcurrentRequests, Duration requestTimeout) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.requestTimeout = requestTimeout;
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    }
+
+    @Override
+    public CachedResponse search(String canonicalQuery) throws IOException, InterruptedException {
+        return get(SearchGateway.SEARCH_PATH + "?" + canonicalQuery);
+    }
+
+    /**
+     * Performs a GET against the upstream path and returns the body of a 200 response.
+     *
+     * @param pathAndQuery path beginning with '/', including an already-encoded query string.
+     * @throws IOException if the upstream is unreachable or answers with a non-200 status.
+     */
+    public CachedResponse get(String pathAndQuery) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + pathAndQuery))
+            .timeout(requestTimeout)
+            .header("Accept", "application/json")
+            .GET()
+            .build();
+
+        permits.acquire();
+        HttpResponse<byte[]> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } finally {
+            permits.release();
+        }
+
+        if (response.statusCode() != 200) {
+            throw new IOException("OpenLibrary responded with status " + response.statusCode()
+                + " for " + pathAndQuery);
+        }
+        String contentType = response.headers().firstValue("Content-Type").orElse("application/json");
+        return CachedResponse.of(contentType, response.body());
+    }
+}
@@ -0,0 +1,306 @@
+package com.revature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Caching gateway in front of the OpenLibrary search API.
+ *
+ * Serves {@code /search.json} with the same query parameters and response body as
+ * {@code https://openlibrary.org/search.json}, so {@code searchBooks()} only needs its base URL
+ * changed to go through the gateway. Every request:
+ * 1. Normalizes the query string into a canonical cache key.
+ * 2. Answers from the shared {@link SearchResponseCache} when possible.
+ * 3. Otherwise coalesces identical in-flight queries through {@link SingleFlight}, so only one
+ *    upstream request is made no matter how many users search for the same thing at once.
+ * 4. Sends the body gzip-compressed when the client accepts it.
+ *
+ * Requests are handled on virtual threads when the runtime supports them (Java 21+), and on a
+ * cached thread pool otherwise.
+ *
+ * Configuration is read from system properties:
+ *    - bookfinder.port (default 8080)
+ *    - bookfinder.upstream (default https://openlibrary.org)
+ *    - bookfinder.cache.maxBytes (default 64 MiB)
+ *    - bookfinder.cache.ttlSeconds (default 300)
+ *    - bookfinder.upstream.maxConcurrent (default 32)
+ *    - bookfinder.index.dir (unset; when set, searches are answered from a local
+ *      {@link BookIndex} built by {@link BookIndexWriter} instead of OpenLibrary)
+ *    - bookfinder.covers.dir (default cover-cache), bookfinder.covers.maxBytes (default 1 GiB)
+ *      and bookfinder.covers.upstream (default https://covers.openlibrary.org) configure the
+ *      {@link CoverProxy} served under /covers/
+ *    - bookfinder.assets.dir (default target/assets); when the directory exists, the front-end
+ *      built by {@link AssetPipeline} is served from / by a {@link StaticAssetHandler}
+ */
+public class SearchGateway {
+    private static final Logger logger = Logger.getLogger(SearchGateway.class.getName());
+
+    static final String SEARCH_PATH = "/search.json";
+
+    private static final Set<String> FORWARDED_PARAMS = new HashSet<>(Arrays.asList(
+        "q", "title", "author", "isbn", "subject", "fields", "limit", "offset", "page", "sort", "lang"));
+    private static final Set<String> TEXT_PARAMS = new HashSet<>(Arrays.asList(
+        "q", "title", "author", "subject"));
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final SearchResponseCache cache;
+    private final SingleFlight<String, CachedResponse> singleFlight = new SingleFlight<>();
+    private final SearchSource source;
+    private final long maxAgeSeconds;
+
+    public SearchGateway(int port, SearchSource source, SearchResponseCache cache, long maxAgeSeconds)
+            throws IOException {
+        this.source = source;
+        this.cache = cache;
+        this.maxAgeSeconds = maxAgeSeconds;
+        this.executor = newRequestExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(port), 4096);
+        this.server.setExecutor(executor);
+        this.server.createContext(SEARCH_PATH, this::handleSearch);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = Integer.getInteger("bookfinder.port", 8080);
+        String upstream = System.getProperty("bookfinder.upstream", "https://openlibrary.org");
+        long maxBytes = Long.getLong("bookfinder.cache.maxBytes", 64L * 1024 * 1024);
+        long ttlSeconds = Long.getLong("bookfinder.cache.ttlSeconds", 300L);
+        int maxConcurrent = Integer.getInteger("bookfinder.upstream.maxConcurrent", 32);
+
+        String indexDir = System.getProperty("bookfinder.index.dir");
+        String coversDir = System.getProperty("bookfinder.covers.dir", "cover-cache");
+        long coversMaxBytes = Long.getLong("bookfinder.covers.maxBytes", 1024L * 1024 * 1024);
+        String coversUpstream = System.getProperty("bookfinder.covers.upstream", "https://covers.openlibrary.org");
+        Path assetsDir = Paths.get(System.getProperty("bookfinder.assets.dir", "target/assets"));
+        System.setProperty("java.awt.headless", "true");
+
+        SearchSource source;
+        if (indexDir != null) {
+            source = BookIndex.open(Paths.get(indexDir));
+            logger.info("Serving searches from local index " + indexDir);
+        } else {
+            source = new OpenLibraryClient(upstream, maxConcurrent, Duration.ofSeconds(20));
+        }
+        SearchResponseCache cache = new SearchResponseCache(maxBytes, ttlSeconds * 1000);
+        SearchGateway gateway = new SearchGateway(port, source, cache, ttlSeconds);
+        gateway.addContext(CoverProxy.PATH, new CoverProxy(Paths.get(coversDir), coversMaxBytes, coversUpstream));
+        if (Files.isDirectory(assetsDir)) {
+            gateway.addContext("/", new StaticAssetHandler(assetsDir));
+            logger.info("Serving front-end assets from " + assetsDir);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(gateway::stop));
+        gateway.start();
+        logger.info("Search gateway listening on http://localhost:" + port + SEARCH_PATH);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Returns the port the gateway listens on, which is the ephemeral port picked by the OS
+     * when it was created with port 0.
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /**
+     * Registers an additional handler on the gateway's server so related endpoints share
+     * the same port and request executor.
+     */
+    public void addContext(String path, HttpHandler handler) {
+        server.createContext(path, handler);
+    }
+
+    private void handleSearch(HttpExchange exchange) throws IOException {
+        try {
+            // The JDK server closes a keep-alive connection whose request body has not been read
+            // to the end when the response completes, which for a 204 is already at
+            // sendResponseHeaders. Search requests carry no body, so drain it up front.
+            exchange.getRequestBody().close();
+            Headers responseHeaders = exchange.getResponseHeaders();
+            responseHeaders.set("Access-Control-Allow-Origin", "*");
+
+            String method = exchange.getRequestMethod();
+            if ("OPTIONS".equals(method)) {
+                responseHeaders.set("Access-Control-Allow-Methods", "GET, HEAD, OPTIONS");
+                exchange.sendResponseHeaders(204, -1);
+                return;
+            }
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+
+            String key = canonicalQuery(exchange.getRequestURI().getRawQuery());
+            if (key.isEmpty()) {
+                sendError(exchange, 400, "At least one search parameter is required");
+                return;
+            }
+
+            CachedResponse response = cache.get(key);
+            String cacheStatus = "HIT";
+            if (response == null) {
+                cacheStatus = "MISS";
+                response = singleFlight.execute(key, () -> {
+                    // A load for this key may have finished between the cache miss above and
+                    // this call; its result is cached by now, so use it instead of refetching.
+                    CachedResponse cached = cache.get(key);
+                    if (cached != null) {
+                        return cached;
+                    }
+                    CachedResponse fetched = source.search(key);
+                    cache.put(key, fetched);
+                    return fetched;
+                });
+            }
+
+            sendCached(exchange, response, cacheStatus);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendError(exchange, 503, "Interrupted");
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Upstream search failed", e);
+            sendError(exchange, 502, "Upstream search failed");
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Unexpected error handling search", e);
+            sendError(exchange, 500, "Internal error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void sendCached(HttpExchange exchange, CachedResponse response, String cacheStatus)
+            throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", response.contentType());
+        headers.set("Cache-Control", "public, max-age=" + maxAgeSeconds);
+        headers.set("Vary", "Accept-Encoding");
+        headers.set("X-Cache", cacheStatus);
+
+        byte[] body = response.body();
+        if (HttpHeaderValues.acceptsGzip(exchange.getRequestHeaders().getFirst("Accept-Encoding"))) {
+            headers.set("Content-Encoding", "gzip");
+            body = response.gzipBody();
+        }
+
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            headers.set("Content-Length", String.valueOf(body.length));
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = ("{\"error\":\"" + message + "\"}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Builds a canonical, re-encoded query string from the raw request query.
+     *
+     * Only parameters understood by search.json are kept, and they are sorted by name so
+     * "title=x&limit=10" and "limit=10&title=x" share one cache entry. Free-text values are
+     * trimmed, whitespace-collapsed and lower-cased (OpenLibrary search is case-insensitive),
+     * and ISBNs have hyphens and spaces removed.
+     */
+    static String canonicalQuery(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return "";
+        }
+        Map<String, String> params = new TreeMap<>();
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = decode(eq < 0 ? pair : pair.substring(0, eq)).trim().toLowerCase(Locale.ROOT);
+            if (!FORWARDED_PARAMS.contains(name) || params.containsKey(name)) {
+                continue;
+            }
+            String value = normalizeValue(name, eq < 0 ? "" : decode(pair.substring(eq + 1)));
+            if (!value.isEmpty()) {
+                params.put(name, value);
+            }
+        }
+
+        StringBuilder canonical = new StringBuilder();
+        for (Map.Entry<String, String> param : params.entrySet()) {
+            if (canonical.length() > 0) {
+                canonical.append('&');
+            }
+            canonical.append(param.getKey()).append('=')
+                .append(URLEncoder.encode(param.getValue(), StandardCharsets.UTF_8));
+        }
+        return canonical.toString();
+    }
+
+    private static String normalizeValue(String name, String value) {
+        String trimmed = value.trim().replaceAll("\\s+", " ");
+        if (TEXT_PARAMS.contains(name)) {
+            return trimmed.toLowerCase(Locale.ROOT);
+        }
+        if ("isbn".equals(name)) {
+            return trimmed.replaceAll("[\\s-]", "").toUpperCase(Locale.ROOT);
+        }
+        return trimmed;
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return value;
+        }
+    }
+
+    /**
+     * Creates a virtual-thread-per-task executor when running on Java 21+, falling back to a
+     * cached platform thread pool on older runtimes. The module still targets Java 11, so the
+     * factory is looked up reflectively.
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.revature;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory cache for upstream search responses.
+ *
+ * Entries are kept in access order so the least recently used response is evicted first
+ * once the total payload size exceeds {@code maxBytes}. Each entry also expires
+ * {@code ttlMillis} after it was stored, so stale OpenLibrary results are refetched
+ * instead of being served forever to popular queries.
+ */
+public class SearchResponseCache {
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long currentBytes;
+
+    public SearchResponseCache(long maxBytes, long ttlMillis) {
+        this(maxBytes, ttlMillis, System::nanoTime);
+    }
+
+    SearchResponseCache(long maxBytes, long ttlMillis, LongSupplier clock) {
+        if (maxBytes <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("maxBytes and ttlMillis must be positive");
+        }
+        this.maxBytes = maxBytes;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the cached response for the key, or null if it is missing or expired.
+     */
+    public synchronized CachedResponse get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.storedAt >= ttlNanos) {
+            remove(key);
+            return null;
+        }
+        return entry.response;
+    }
+
+    /**
+     * Stores a response, evicting expired and then least recently used entries until the
+     * cache fits within its byte budget. Responses larger than the whole budget are not cached.
+     */
+    public synchronized void put(String key, CachedResponse response) {
+        long size = response.weight();
+        if (size > maxBytes) {
+            return;
+        }
+        remove(key);
+        entries.put(key, new Entry(response, clock.getAsLong()));
+        currentBytes += size;
+        if (currentBytes > maxBytes) {
+            evictExpired();
+        }
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            currentBytes -= eldest.response.weight();
+            it.remove();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long sizeInBytes() {
+        return currentBytes;
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            currentBytes -= removed.response.weight();
+        }
+    }
+
+    private void evictExpired() {
+        long now = clock.getAsLong();
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (now - entry.storedAt >= ttlNanos) {
+                currentBytes -= entry.response.weight();
+                it.remove();
+            }
+        }
+    }
+
+    private static class Entry {
+        final CachedResponse response;
+        final long storedAt;
+
+        Entry(CachedResponse response, long storedAt) {
+            this.response = response;
+            this.storedAt = storedAt;
+        }
+    }
+}
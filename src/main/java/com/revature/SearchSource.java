@@ -0,0 +1,18 @@
+package com.revature;
+
+import java.io.IOException;
+
+/**
+ * Something that can answer a search.json query.
+ *
+ * The {@link SearchGateway} caches and coalesces whatever a source returns, so the same
+ * gateway can sit in front of the live OpenLibrary API or a local {@link BookIndex}.
+ */
+public interface SearchSource {
+
+    /**
+     * @param canonicalQuery a query string as produced by {@link SearchGateway#canonicalQuery(String)}.
+     * @return a search.json-shaped response body.
+     */
+    CachedResponse search(String canonicalQuery) throws IOException, InterruptedException;
+}
@@ -0,0 +1,149 @@
+package com.revature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * Serves the front-end assets produced by {@link AssetPipeline}.
+ *
+ * For every request the precompressed variant written at build time is preferred: .br when
+ * the client accepts brotli and the file exists, then .gz, then the plain file. No compression
+ * happens per request.
+ *
+ * Fingerprinted files ({@code name.<hash>.ext}) never change, so they are marked immutable for
+ * a year. index.html keeps its name across builds and must be revalidated on every load, which
+ * is cheap because it carries an ETag derived from its size and modification time. The ETag
+ * names the content coding too, since the plain, .gz and .br bodies are different
+ * representations and a cache must not answer a request for one with another.
+ */
+public class StaticAssetHandler implements HttpHandler {
+    private static final Logger logger = Logger.getLogger(StaticAssetHandler.class.getName());
+
+    private static final Pattern FINGERPRINTED = Pattern.compile("^[^/]+\\.[0-9a-f]{10}\\.[a-z]+$");
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE = "no-cache";
+    private static final Map<String, String> CONTENT_TYPES = new HashMap<>();
+
+    static {
+        CONTENT_TYPES.put("html", "text/html; charset=utf-8");
+        CONTENT_TYPES.put("css", "text/css; charset=utf-8");
+        CONTENT_TYPES.put("js", "text/javascript; charset=utf-8");
+        CONTENT_TYPES.put("json", "application/json");
+        CONTENT_TYPES.put("svg", "image/svg+xml");
+        CONTENT_TYPES.put("png", "image/png");
+        CONTENT_TYPES.put("jpg", "image/jpeg");
+        CONTENT_TYPES.put("ico", "image/x-icon");
+    }
+
+    private final Path root;
+
+    public StaticAssetHandler(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                sendStatus(exchange, 405);
+                return;
+            }
+            String name = exchange.getRequestURI().getPath().substring(1);
+            if (name.isEmpty()) {
+                name = "index.html";
+            }
+            Path file = root.resolve(name).normalize();
+            if (!file.startsWith(root) || name.endsWith(".gz") || name.endsWith(".br") || !Files.isRegularFile(file)) {
+                sendStatus(exchange, 404);
+                return;
+            }
+            sendFile(exchange, file, name);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Could not serve " + exchange.getRequestURI(), e);
+            sendStatus(exchange, 500);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void sendFile(HttpExchange exchange, Path file, String name) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        Path body = file;
+        String contentCoding = null;
+        if (HttpHeaderValues.acceptsEncoding(acceptEncoding, "br") && Files.isRegularFile(sibling(file, ".br"))) {
+            body = sibling(file, ".br");
+            contentCoding = "br";
+        } else if (HttpHeaderValues.acceptsGzip(acceptEncoding) && Files.isRegularFile(sibling(file, ".gz"))) {
+            body = sibling(file, ".gz");
+            contentCoding = "gzip";
+        }
+        if (contentCoding != null) {
+            headers.set("Content-Encoding", contentCoding);
+        }
+
+        String extension = name.substring(name.lastIndexOf('.') + 1);
+        headers.set("Content-Type", CONTENT_TYPES.getOrDefault(extension, "application/octet-stream"));
+        headers.set("Vary", "Accept-Encoding");
+        if (FINGERPRINTED.matcher(name).matches()) {
+            headers.set("Cache-Control", IMMUTABLE);
+        } else {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            String etag = "\"" + Long.toHexString(attributes.size()) + "-"
+                + Long.toHexString(attributes.lastModifiedTime().toMillis())
+                + (contentCoding == null ? "" : "-" + contentCoding) + "\"";
+            headers.set("Cache-Control", REVALIDATE);
+            headers.set("ETag", etag);
+            if (HttpHeaderValues.etagMatches(exchange.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(body, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                headers.set("Content-Length", String.valueOf(length));
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, length);
+            try (OutputStream out = exchange.getResponseBody();
+                    WritableByteChannel target = Channels.newChannel(out)) {
+                long position = 0;
+                while (position < length) {
+                    position += channel.transferTo(position, length - position, target);
+                }
+            }
+        }
+    }
+
+    private static Path sibling(Path file, String suffix) {
+        return file.resolveSibling(file.getFileName() + suffix);
+    }
+
+    private static void sendStatus(HttpExchange exchange, int status) throws IOException {
+        if (exchange.getResponseCode() != -1) {
+            return;
+        }
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(status, -1);
+    }
+}
@@ -23,6 +23,11 @@ async function handleSearch(event) {
 
 }
 
+/**
+ * Base URL of the search API, used by searchBooks() and every "any" search request.
+ * Change it to http://localhost:8080 to go through the caching gateway.
+ */
+const OPEN_LIBRARY_BASE_URL = 'https://openlibrary.org';
 
   /**
    * Searches for books using the Open Library API based on the given query and type.
@@ -54,6 +59,149 @@ async function handleSearch(event) {
         
     }
 
+/**
+ * How long, in milliseconds, a single field search of an "any" search may take before it is abandoned.
+ */
+const ANY_SEARCH_BRANCH_TIMEOUT_MS = 4000;
+
+/**
+ * Weight of each field in the merged relevance score. An ISBN match is almost always the
+ * book the user meant, so it outranks title and author matches.
+ */
+const ANY_SEARCH_FIELD_WEIGHTS = { isbn: 3, title: 1, author: 1 };
+
+/**
+ * Smoothing constant for reciprocal rank fusion. Larger values flatten the difference
+ * between the first and last result of a field.
+ */
+const RANK_FUSION_K = 60;
+
+const SEARCH_RESULT_FIELDS = 'key,title,author_name,isbn,cover_i,ebook_access,first_publish_year,ratings_sortable';
+
+let anySearchControllers = [];
+
+/**
+ * Searches titles, authors and ISBNs at the same time when the user does not know which one their text is.
+ *
+ * @async
+ * @param {string} query - The search term, which may be a title, an author name or an ISBN.
+ * @param {function(Array): void} [onResults=displayBookList] - Called with the merged list each time a field search returns.
+ * @returns {Promise<Array>} A promise that resolves to the final merged array of at most 10 book objects.
+ *
+ * @description
+ * handleSearch() can call this instead of searchBooks() for an "any" search, since the
+ * 'search-type' select only offers title, author and isbn.
+ * It performs the following actions:
+ * 1. Starts a title search and an author search concurrently, plus an ISBN search when the query looks like an ISBN.
+ *    Each request has its own timeout, and starting a new "any" search cancels the previous one.
+ * 2. As each request returns, merges its books into the results, keeping one entry per work key.
+ * 3. Ranks the merged books by combined relevance: each field adds its weight divided by
+ *    (RANK_FUSION_K + the book's rank in that field), so books found by several fields rise to the top.
+ * 4. Passes the current top 10 to onResults whenever it changes, so results appear as soon as the
+ *    fastest field returns instead of after the slowest.
+ * 5. Skips fields that fail or time out and resolves with what the others found.
+ */
+async function searchAnyField(query, onResults = displayBookList) {
+    anySearchControllers.forEach(controller => controller.abort());
+    const controllers = [];
+    anySearchControllers = controllers;
+
+    const trimmed = query.trim();
+    const fields = isIsbnShaped(trimmed) ? ['isbn', 'title', 'author'] : ['title', 'author'];
+    const merged = new Map();
+    let rendered = null;
+
+    await Promise.allSettled(fields.map(async field => {
+        const controller = new AbortController();
+        controllers.push(controller);
+        const books = await fetchSearchField(trimmed, field, controller, ANY_SEARCH_BRANCH_TIMEOUT_MS);
+        if (anySearchControllers !== controllers) {
+            return;
+        }
+        mergeRankedBooks(merged, books, ANY_SEARCH_FIELD_WEIGHTS[field]);
+
+        const ranked = topRankedBooks(merged);
+        const keys = ranked.map(book => book.key).join(',');
+        if (keys !== rendered) {
+            rendered = keys;
+            onResults(ranked);
+        }
+    }));
+    return topRankedBooks(merged);
+}
+
+/**
+ * Returns true if the text is an ISBN-10 or ISBN-13, ignoring hyphens and spaces.
+ *
+ * @param {string} text - The text to check.
+ * @returns {boolean} Whether the text is shaped like an ISBN.
+ */
+function isIsbnShaped(text) {
+    return /^(\d{9}[\dXx]|\d{13})$/.test(text.replace(/[\s-]/g, ''));
+}
+
+/**
+ * Searches a single Open Library field, aborting the request after the given timeout.
+ *
+ * @async
+ * @param {string} query - The search term.
+ * @param {string} field - The field to search ('title', 'author' or 'isbn').
+ * @param {AbortController} controller - Aborts the request on timeout or when a newer search starts.
+ * @param {number} timeoutMs - How long to wait before aborting.
+ * @returns {Promise<Array>} A promise that resolves to the matching book objects in Open Library's order.
+ */
+async function fetchSearchField(query, field, controller, timeoutMs) {
+    const timer = setTimeout(() => controller.abort(), timeoutMs);
+    try {
+        const params = new URLSearchParams({
+            [field]: field === 'isbn' ? query.replace(/[\s-]/g, '') : query,
+            fields: SEARCH_RESULT_FIELDS,
+            limit: '10'
+        });
+        const response = await fetch(`${OPEN_LIBRARY_BASE_URL}/search.json?${params}`, { signal: controller.signal });
+        if (!response.ok) {
+            throw new Error(`Open Library ${field} search failed with status ${response.status}`);
+        }
+        const data = await response.json();
+        return data.docs || [];
+    } finally {
+        clearTimeout(timer);
+    }
+}
+
+/**
+ * Adds one field's results to the merged results, keyed by work key.
+ *
+ * @param {Map<string, Object>} merged - The merged results, mapping each work key to its book and score.
+ * @param {Array} books - The field's book objects in ranked order.
+ * @param {number} weight - The field's weight in the combined score.
+ */
+function mergeRankedBooks(merged, books, weight) {
+    books.forEach((book, rank) => {
+        const key = book.key || `${book.title}|${(book.author_name || []).join(',')}`;
+        const score = weight / (RANK_FUSION_K + rank + 1);
+        const entry = merged.get(key);
+        if (entry) {
+            entry.score += score;
+        } else {
+            merged.set(key, { book: { ...book, key }, score });
+        }
+    });
+}
+
+/**
+ * Returns the 10 highest scoring merged books. Ties keep the order in which books were first found.
+ *
+ * @param {Map<string, Object>} merged - The merged results from mergeRankedBooks().
+ * @returns {Array} Up to 10 book objects, best first.
+ */
+function topRankedBooks(merged) {
+    return Array.from(merged.values())
+        .sort((a, b) => b.score - a.score)
+        .slice(0, 10)
+        .map(entry => entry.book);
+}
+
   /**
  * Takes in a list of books and updates the UI accordingly.
  *
@@ -0,0 +1,163 @@
+package com.revature;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class AssetPipelineTest {
+    private static final String HTML = "<!DOCTYPE html>\n<html>\n<head>\n"
+        + "  <link rel=\"stylesheet\" href=\"styles.css\" />\n</head>\n<body>\n"
+        + "  <!-- instructions -->\n  <main>\n    <p>Book   Finder</p>\n  </main>\n"
+        + "  <script src=\"script.js\"></script>\n</body>\n</html>\n";
+    private static final String CSS = "/* theme */\nmain {\n  padding: 2rem;\n  width: calc(100% - 2rem);\n}\n";
+    private static final String JS = "// entry point\nconst BASE = 'https://openlibrary.org'; // api\n"
+        + "/**\n * Docs\n */\nfunction f(a) {\n    return a.replace(/\\/\\/+/g, \"/*\") + `${a} // kept`;\n}\n";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = temporaryFolder.getRoot().toPath();
+        Files.createDirectories(dir.resolve("src"));
+        Files.writeString(dir.resolve("src/index.html"), HTML);
+        Files.writeString(dir.resolve("src/styles.css"), CSS);
+        Files.writeString(dir.resolve("src/script.js"), JS);
+    }
+
+    @Test
+    public void testMinifyCss() {
+        assertEquals("main{padding:2rem;width:calc(100% - 2rem)}", AssetPipeline.minifyCss(CSS));
+        assertEquals("@media (max-width:600px){a:hover,b>i{content:\"a  b\"}}",
+            AssetPipeline.minifyCss("@media (max-width: 600px) {\n  a:hover, b > i { content: \"a  b\"; }\n}"));
+    }
+
+    @Test
+    public void testMinifyJsKeepsLiterals() {
+        assertEquals("const BASE = 'https://openlibrary.org';\nfunction f(a) {\n"
+            + "return a.replace(/\\/\\/+/g, \"/*\") + `${a} // kept`;\n}",
+            AssetPipeline.minifyJs(JS));
+        assertEquals("const t = `a\n  ${ {x: 1}.x}\n  b`;\nlet n = 4 / 2 / 1;",
+            AssetPipeline.minifyJs("const t = `a\n  ${ {x: 1}.x }\n  b`; // t\n\n\nlet n = 4 / 2 / 1;"));
+    }
+
+    @Test
+    public void testBuildFingerprintsAndInlines() throws Exception {
+        Path out = dir.resolve("out");
+        Map<String, String> manifest = new AssetPipeline(dir.resolve("src"), out, false).build();
+
+        String script = manifest.get("script.js");
+        assertTrue(script, script.matches("script\\.[0-9a-f]{10}\\.js"));
+        assertNull("Small stylesheets are inlined, not linked", manifest.get("styles.css"));
+
+        String page = Files.readString(out.resolve("index.html"));
+        assertTrue(page, page.contains("<script src=\"" + script + "\"></script>"));
+        assertTrue(page, page.contains("<style>main{padding:2rem;width:calc(100% - 2rem)}</style>"));
+        assertFalse(page, page.contains("instructions"));
+        assertFalse(page, page.contains("styles.css"));
+        assertTrue(page, page.contains("<p>Book Finder</p>"));
+
+        assertArrayEquals(AssetPipeline.gzip(Files.readAllBytes(out.resolve(script))),
+            Files.readAllBytes(out.resolve(script + ".gz")));
+        assertTrue(Files.exists(out.resolve("index.html.gz")));
+        assertFalse(Files.exists(out.resolve(script + ".br")));
+    }
+
+    @Test
+    public void testCriticalCssMarkerSplitsLargeStylesheet() throws Exception {
+        StringBuilder css = new StringBuilder("header { color: #333; }\n" + AssetPipeline.CRITICAL_END_MARKER + "\n");
+        for (int i = 0; i < 1000; i++) {
+            css.append(".rule-").append(i).append(" { margin: ").append(i).append("px; }\n");
+        }
+        Files.writeString(dir.resolve("src/styles.css"), css);
+
+        Path out = dir.resolve("out");
+        Map<String, String> manifest = new AssetPipeline(dir.resolve("src"), out, false).build();
+
+        String styles = manifest.get("styles.css");
+        String page = Files.readString(out.resolve("index.html"));
+        assertTrue(page, page.contains("<style>header{color:#333}</style><link rel=\"stylesheet\" href=\"" + styles + "\">"));
+        assertFalse(Files.readString(out.resolve(styles)).contains("header"));
+    }
+
+    @Test
+    public void testServesPrecompressedVariants() throws Exception {
+        Path out = dir.resolve("out");
+        Map<String, String> manifest = new AssetPipeline(dir.resolve("src"), out, false).build();
+        String script = manifest.get("script.js");
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new StaticAssetHandler(out));
+        server.start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            String base = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+
+            HttpResponse<byte[]> gzipped = client.send(HttpRequest.newBuilder(URI.create(base + script))
+                .header("Accept-Encoding", "gzip, br").build(), HttpResponse.BodyHandlers.ofByteArray());
+            assertEquals(200, gzipped.statusCode());
+            assertEquals("gzip", gzipped.headers().firstValue("Content-Encoding").orElse(null));
+            assertEquals("public, max-age=31536000, immutable", gzipped.headers().firstValue("Cache-Control").orElse(null));
+            assertArrayEquals(Files.readAllBytes(out.resolve(script + ".gz")), gzipped.body());
+
+            Files.write(out.resolve(script + ".br"), new byte[] { 1, 2, 3 });
+            HttpResponse<byte[]> brotli = client.send(HttpRequest.newBuilder(URI.create(base + script))
+                .header("Accept-Encoding", "gzip, br").build(), HttpResponse.BodyHandlers.ofByteArray());
+            assertEquals("br", brotli.headers().firstValue("Content-Encoding").orElse(null));
+            assertArrayEquals(new byte[] { 1, 2, 3 }, brotli.body());
+
+            HttpResponse<String> index = client.send(HttpRequest.newBuilder(URI.create(base)).build(),
+                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            assertEquals(200, index.statusCode());
+            assertFalse(index.headers().firstValue("Content-Encoding").isPresent());
+            assertEquals("no-cache", index.headers().firstValue("Cache-Control").orElse(null));
+            String etag = index.headers().firstValue("ETag").orElse(null);
+
+            HttpResponse<String> revalidated = client.send(HttpRequest.newBuilder(URI.create(base + "index.html"))
+                .header("If-None-Match", etag).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(304, revalidated.statusCode());
+
+            HttpResponse<byte[]> gzippedIndex = client.send(HttpRequest.newBuilder(URI.create(base))
+                .header("Accept-Encoding", "gzip").header("If-None-Match", etag).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+            assertEquals("The gzip body must not revalidate against the plain body's ETag",
+                200, gzippedIndex.statusCode());
+            assertEquals("gzip", gzippedIndex.headers().firstValue("Content-Encoding").orElse(null));
+            String gzipEtag = gzippedIndex.headers().firstValue("ETag").orElse(null);
+            assertFalse(etag.equals(gzipEtag));
+
+            HttpResponse<byte[]> gzipRevalidated = client.send(HttpRequest.newBuilder(URI.create(base))
+                .header("Accept-Encoding", "gzip").header("If-None-Match", gzipEtag).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+            assertEquals(304, gzipRevalidated.statusCode());
+
+            HttpResponse<String> escape = client.send(HttpRequest.newBuilder(URI.create(base + "../src/index.html")).build(),
+                HttpResponse.BodyHandlers.ofString());
+            assertEquals(404, escape.statusCode());
+        } finally {
+            server.stop(0);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.revature;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BookIndexTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path dir;
+    private BookIndex index;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = temporaryFolder.getRoot().toPath();
+
+        Path authors = dir.resolve("authors.txt.gz");
+        writeGzip(authors,
+            dumpLine("/type/author", "/authors/OL1A", "{\"name\": \"J. K. Rowling\"}"),
+            dumpLine("/type/author", "/authors/OL2A", "{\"name\": \"Edgar Allan Poe\"}"));
+
+        Path works = dir.resolve("works.txt");
+        Files.write(works, List.of(
+            dumpLine("/type/work", "/works/OL10W", "{\"title\": \"Harry Potter and the Philosopher's Stone\","
+                + " \"authors\": [{\"author\": {\"key\": \"/authors/OL1A\"}}], \"covers\": [10521270],"
+                + " \"first_publish_date\": \"June 26, 1997\"}"),
+            dumpLine("/type/work", "/works/OL11W", "{\"title\": \"Harry Potter and the Chamber of Secrets\","
+                + " \"authors\": [{\"author\": {\"key\": \"/authors/OL1A\"}}]}"),
+            dumpLine("/type/work", "/works/OL20W", "{\"title\": \"The Raven\","
+                + " \"authors\": [{\"author\": {\"key\": \"/authors/OL2A\"}}]}"),
+            "not a dump line"), StandardCharsets.UTF_8);
+
+        Path editions = dir.resolve("editions.txt");
+        Files.write(editions, List.of(
+            dumpLine("/type/edition", "/books/OL1M", "{\"works\": [{\"key\": \"/works/OL11W\"}],"
+                + " \"isbn_10\": [\"0-7475-3849-2\"], \"publish_date\": \"1998\"}"),
+            dumpLine("/type/edition", "/books/OL2M", "{\"works\": [{\"key\": \"/works/OL11W\"}],"
+                + " \"isbn_13\": [\"9781472539342\"]}"),
+            dumpLine("/type/edition", "/books/OL3M", "{\"works\": [{\"key\": \"/works/OL10W\"}]}")),
+            StandardCharsets.UTF_8);
+
+        Path indexDir = dir.resolve("index");
+        Files.createDirectories(indexDir);
+        new BookIndexWriter(indexDir, 4).build(authors, works, editions);
+        index = BookIndex.open(indexDir);
+    }
+
+    @Test
+    public void testTitleSearchRanksAndLimitsResults() {
+        String all = search("title", "harry potter", "limit", "10");
+        assertTrue(all.startsWith("{\"numFound\":2,"));
+        assertTrue("More editions should rank first.",
+            all.indexOf("Chamber of Secrets") < all.indexOf("Philosopher"));
+
+        String limited = search("title", "HARRY potter", "limit", "1");
+        assertTrue(limited.contains("Chamber of Secrets"));
+        assertFalse(limited.contains("Philosopher"));
+    }
+
+    @Test
+    public void testAuthorSearchOnlyMatchesAuthorField() {
+        String poe = search("author", "edgar allan poe");
+        assertTrue(poe.contains("\"author_name\":[\"Edgar Allan Poe\"]"));
+        assertTrue(poe.contains("\"title\":\"The Raven\""));
+
+        assertEquals("{\"numFound\":0,\"start\":0,\"numFoundExact\":true,\"num_found\":0,\"docs\":[]}",
+            search("author", "raven"));
+        assertTrue(search("q", "raven poe").contains("The Raven"));
+    }
+
+    @Test
+    public void testIsbnSearchMatchesBothIsbnForms() {
+        String isbn13 = search("isbn", "9780747538493");
+        String isbn10 = search("isbn", "0747538492");
+        assertEquals(isbn13, isbn10);
+        assertTrue(isbn13.contains("\"key\":\"/works/OL11W\""));
+        assertTrue(isbn13.contains("\"first_publish_year\":1998"));
+
+        assertTrue(search("isbn", "9781472539342").contains("Chamber of Secrets"));
+        assertTrue(search("isbn", "9780000000002").startsWith("{\"numFound\":0,"));
+    }
+
+    @Test
+    public void testStoredDocumentFields() {
+        String philosopher = search("title", "philosopher's stone");
+        assertTrue(philosopher.contains("\"cover_i\":10521270"));
+        assertTrue(philosopher.contains("\"first_publish_year\":1997"));
+        assertTrue(philosopher.contains("\"edition_count\":1"));
+    }
+
+    @Test
+    public void testCommonTermStopsAfterTopResults() throws IOException {
+        List<String> works = new ArrayList<>();
+        List<String> editions = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            works.add(dumpLine("/type/work", "/works/OL" + i + "W", "{\"title\": \"Common Work " + i + "\"}"));
+            for (int edition = 0; edition < i % 7; edition++) {
+                editions.add(dumpLine("/type/edition", "/books/OL" + i + "M" + edition,
+                    "{\"works\": [{\"key\": \"/works/OL" + i + "W\"}]}"));
+            }
+        }
+        Path worksFile = dir.resolve("common-works.txt");
+        Path editionsFile = dir.resolve("common-editions.txt");
+        Files.write(worksFile, works, StandardCharsets.UTF_8);
+        Files.write(editionsFile, editions, StandardCharsets.UTF_8);
+        Path authorsFile = dir.resolve("common-authors.txt.gz");
+        writeGzip(authorsFile);
+        Path indexDir = dir.resolve("common-index");
+        Files.createDirectories(indexDir);
+        new BookIndexWriter(indexDir, 8).build(authorsFile, worksFile, editionsFile);
+        index = BookIndex.open(indexDir);
+
+        String all = search("title", "common work", "limit", "100");
+        assertTrue(all.startsWith("{\"numFound\":50,\"start\":0,\"numFoundExact\":true,"));
+
+        assertTrue("A limit of 0 counts every match.", search("title", "common work", "limit", "0", "offset", "3")
+            .startsWith("{\"numFound\":50,\"start\":3,\"numFoundExact\":true,"));
+
+        String top = search("title", "common work", "limit", "3");
+        assertTrue(top.contains("\"numFoundExact\":false"));
+        String topDocs = top.substring(top.indexOf("\"docs\":[") + 8, top.length() - 2);
+        assertTrue("Stopping early must not change the top results.",
+            all.substring(all.indexOf("\"docs\":[") + 8).startsWith(topDocs + ","));
+        assertTrue(topDocs.indexOf("/works/OL6W") < topDocs.indexOf("/works/OL13W"));
+        assertTrue(topDocs.indexOf("/works/OL13W") < topDocs.indexOf("/works/OL20W"));
+    }
+
+    private String search(String... keyValues) {
+        Map<String, String> params = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            params.put(keyValues[i], keyValues[i + 1]);
+        }
+        return new String(index.search(params), StandardCharsets.UTF_8);
+    }
+
+    private static String dumpLine(String type, String key, String json) {
+        return type + "\t" + key + "\t1\t2024-01-01T00:00:00\t" + json;
+    }
+
+    private static void writeGzip(Path path, String... lines) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(path))) {
+            for (String line : lines) {
+                out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+}
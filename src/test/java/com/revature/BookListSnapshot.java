@@ -0,0 +1,95 @@
+package com.revature;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Captures a rendered book list in a single WebDriver round trip.
+ *
+ * Reading each field with findElement(...).getText() costs one HTTP call to the driver per
+ * field per book, plus an implicit wait whenever a field is missing. This runs one script in
+ * the page that reads every list item at once and returns plain values, so the cost stays flat
+ * as the number of results grows.
+ *
+ * Text is read the way WebElement.getText() reports it: the rendered, trimmed text, or an
+ * empty string for an element that is not displayed. A field whose element is missing from
+ * the item is null.
+ */
+final class BookListSnapshot {
+    private static final String SCRIPT =
+        "const visible = el => el.checkVisibility\n"
+        + "    ? el.checkVisibility({ opacityProperty: true, visibilityProperty: true })\n"
+        + "    : el.getClientRects().length > 0 && getComputedStyle(el).visibility !== 'hidden';\n"
+        + "const text = (item, className) => {\n"
+        + "  const el = item.getElementsByClassName(className)[0];\n"
+        + "  return el ? (visible(el) ? el.innerText.trim() : '') : null;\n"
+        + "};\n"
+        + "const list = document.querySelector(arguments[0]);\n"
+        + "if (!list) return null;\n"
+        + "return Array.from(list.getElementsByTagName('li'), item => {\n"
+        + "  const cover = item.getElementsByClassName('cover-element')[0];\n"
+        + "  return {\n"
+        + "    title: text(item, 'title-element'),\n"
+        + "    author: text(item, 'author-element'),\n"
+        + "    rating: text(item, 'rating-element'),\n"
+        + "    ebook: text(item, 'ebook-element'),\n"
+        + "    hasCover: !!cover,\n"
+        + "    coverSrc: cover ? (cover.currentSrc || cover.getAttribute('src')) : null,\n"
+        + "    coverDisplayed: !!cover && visible(cover),\n"
+        + "    displayed: visible(item)\n"
+        + "  };\n"
+        + "});";
+
+    private BookListSnapshot() {
+    }
+
+    /**
+     * Returns every {@code <li>} under the element matching {@code listSelector}, in document
+     * order, or an empty list if there is no such element.
+     */
+    @SuppressWarnings("unchecked")
+    static List<Book> capture(WebDriver webDriver, String listSelector) {
+        Object result = ((JavascriptExecutor) webDriver).executeScript(SCRIPT, listSelector);
+        if (result == null) {
+            return Collections.emptyList();
+        }
+        List<Book> books = new ArrayList<>();
+        for (Object item : (List<Object>) result) {
+            books.add(new Book((Map<String, Object>) item));
+        }
+        return books;
+    }
+
+    static final class Book {
+        final String title;
+        final String author;
+        final String rating;
+        final String ebook;
+        final boolean hasCover;
+        final String coverSrc;
+        final boolean coverDisplayed;
+        final boolean displayed;
+
+        Book(Map<String, Object> values) {
+            this.title = (String) values.get("title");
+            this.author = (String) values.get("author");
+            this.rating = (String) values.get("rating");
+            this.ebook = (String) values.get("ebook");
+            this.hasCover = Boolean.TRUE.equals(values.get("hasCover"));
+            this.coverSrc = (String) values.get("coverSrc");
+            this.coverDisplayed = Boolean.TRUE.equals(values.get("coverDisplayed"));
+            this.displayed = Boolean.TRUE.equals(values.get("displayed"));
+        }
+
+        @Override
+        public String toString() {
+            return "Book[title=" + title + ", author=" + author + ", rating=" + rating + ", ebook=" + ebook
+                + ", coverSrc=" + coverSrc + ", displayed=" + displayed + "]";
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.revature;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Hands out browser profiles cloned from a prewarmed template.
+ *
+ * A fresh --user-data-dir makes every test pay for first-run initialization and start with
+ * empty HTTP and code caches. Instead, the template profile is built once by loading the page
+ * in a throwaway session. Every test then gets its own copy, which is deleted at teardown.
+ *
+ * The template is keyed on everything its caches depend on: the browser (see
+ * {@link #fileStamp(String)}) and the page's sources (see {@link #pageHash(Path)}). A copy of
+ * the page cached by an older build can never be served to a test, because changing a
+ * source file changes the key and rebuilds the template.
+ *
+ * Layout under the root (system property bookfinder.profiles.dir, default
+ * {@code target/browser-profiles}, so {@code mvn clean} removes it):
+ *    - template/  the prewarmed profile, plus a marker file naming the browser it was built for
+ *    - sessions/  one clone per running test
+ *    - .lock      held while the template is built or copied, so forked test JVMs can share it
+ *
+ * Total usage is capped by bookfinder.profiles.maxBytes (default 1 GiB). Going over the cap
+ * removes clones abandoned by crashed runs, oldest first. The template is only dropped and
+ * rebuilt when it alone is over the cap; otherwise a rebuild would come back at the same size.
+ */
+final class BrowserProfileManager {
+    private static final String MARKER = ".prewarmed";
+    private static final long STALE_AFTER_MILLIS = 2 * 60 * 60 * 1000L;
+    private static final Set<String> SKIPPED_FILES = new HashSet<>(Arrays.asList(
+        "SingletonLock", "SingletonSocket", "SingletonCookie", "lockfile", "LOCK", "DevToolsActivePort"));
+
+    private static BrowserProfileManager instance;
+
+    private final Path root;
+    private final Path template;
+    private final Path sessions;
+    private final long maxBytes;
+    private final Set<Path> activeSessions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Prepares a new profile directory by running the browser against it.
+     */
+    interface ProfileWarmer {
+        void warm(Path profileDir) throws Exception;
+    }
+
+    BrowserProfileManager(Path root, long maxBytes) throws IOException {
+        this.root = root;
+        this.template = root.resolve("template");
+        this.sessions = root.resolve("sessions");
+        this.maxBytes = maxBytes;
+        Files.createDirectories(sessions);
+    }
+
+    static synchronized BrowserProfileManager getInstance() throws IOException {
+        if (instance == null) {
+            Path root = Paths.get(System.getProperty("bookfinder.profiles.dir", "target/browser-profiles"));
+            long maxBytes = Long.getLong("bookfinder.profiles.maxBytes", 1024L * 1024 * 1024);
+            instance = new BrowserProfileManager(root, maxBytes);
+        }
+        return instance;
+    }
+
+    /**
+     * Makes sure a template built for {@code templateKey} exists, building it with
+     * {@code warmer} if it is missing or was built for a different key.
+     */
+    synchronized void ensureTemplate(String templateKey, ProfileWarmer warmer) throws Exception {
+        try (FileChannel lockFile = openLock()) {
+            lockFile.lock();
+            enforceCap();
+            Path marker = template.resolve(MARKER);
+            if (Files.exists(marker)
+                    && templateKey.equals(new String(Files.readAllBytes(marker), StandardCharsets.UTF_8))) {
+                return;
+            }
+
+            System.out.println("Building browser profile template for " + templateKey);
+            Path building = root.resolve("template-" + UUID.randomUUID());
+            Files.createDirectories(building);
+            try {
+                warmer.warm(building);
+                Files.write(building.resolve(MARKER), templateKey.getBytes(StandardCharsets.UTF_8));
+                deleteRecursively(template);
+                Files.move(building, template, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                deleteRecursively(building);
+            }
+        }
+    }
+
+    /**
+     * Copies the template into a new session directory and returns it. Lock files and
+     * symbolic links are left out so the clone can be opened by its own browser process.
+     * Without a template the new profile starts empty.
+     */
+    synchronized Path cloneTemplate() throws IOException {
+        Path session = sessions.resolve(UUID.randomUUID().toString());
+        try (FileChannel lockFile = openLock()) {
+            lockFile.lock();
+            if (Files.isDirectory(template)) {
+                copyProfile(template, session);
+            } else {
+                Files.createDirectories(session);
+            }
+        }
+        activeSessions.add(session);
+        return session;
+    }
+
+    /**
+     * Deletes a session directory returned by {@link #cloneTemplate()}.
+     */
+    void release(Path session) {
+        if (session == null) {
+            return;
+        }
+        activeSessions.remove(session);
+        try {
+            deleteRecursively(session);
+        } catch (IOException e) {
+            System.out.println("Warning: Could not delete browser profile " + session + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the size and modification time of a file, or "-" if there is none. Browsers are
+     * upgraded in place, so the path alone does not identify the version that wrote a profile.
+     */
+    static String fileStamp(String path) {
+        if (path == null) {
+            return "-";
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(Paths.get(path), BasicFileAttributes.class);
+            return Long.toHexString(attributes.size()) + "-" + Long.toHexString(attributes.lastModifiedTime().toMillis());
+        } catch (IOException e) {
+            return "-";
+        }
+    }
+
+    /**
+     * Returns a SHA-256 over the names and contents of the .html, .js and .css files in the
+     * page's directory, which are the files a warmed profile holds cached copies of.
+     */
+    static String pageHash(Path pageDir) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        List<Path> files;
+        try (Stream<Path> entries = Files.list(pageDir)) {
+            files = entries
+                .filter(path -> path.getFileName().toString().matches(".*\\.(html|js|css)$"))
+                .filter(Files::isRegularFile)
+                .sorted()
+                .collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            digest.update(file.getFileName().toString().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(Files.readAllBytes(file));
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    void printUsage() {
+        try {
+            System.out.println("Browser profiles: template " + formatBytes(sizeOf(template))
+                + ", " + countSessions() + " session(s) " + formatBytes(sizeOf(sessions))
+                + ", cap " + formatBytes(maxBytes));
+        } catch (IOException e) {
+            System.out.println("Warning: Could not measure browser profiles: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Called with the lock held. Removes abandoned sessions, never touching sessions that are
+     * still in use. Clones younger than STALE_AFTER_MILLIS may belong to another test JVM, so
+     * they are kept even if that leaves usage over the cap. Half-built templates are always
+     * removed, since a template is only built while the lock is held.
+     */
+    private void enforceCap() throws IOException {
+        try (Stream<Path> entries = Files.list(root)) {
+            for (Path abandoned : entries
+                    .filter(path -> path.getFileName().toString().startsWith("template-"))
+                    .collect(Collectors.toList())) {
+                deleteRecursively(abandoned);
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        List<Path> stale;
+        try (Stream<Path> entries = Files.list(sessions)) {
+            stale = entries
+                .filter(session -> !activeSessions.contains(session))
+                .filter(session -> lastModified(session) < now - STALE_AFTER_MILLIS)
+                .sorted(Comparator.comparingLong(BrowserProfileManager::lastModified))
+                .collect(Collectors.toList());
+        }
+        long templateBytes = sizeOf(template);
+        long total = templateBytes + sizeOf(sessions);
+        for (Path session : stale) {
+            if (total <= maxBytes) {
+                return;
+            }
+            total -= sizeOf(session);
+            deleteRecursively(session);
+        }
+        if (templateBytes > maxBytes) {
+            System.out.println("Browser profile template exceeds " + formatBytes(maxBytes) + ", rebuilding it");
+            deleteRecursively(template);
+        } else if (total > maxBytes) {
+            System.out.println("Warning: Browser profiles exceed " + formatBytes(maxBytes)
+                + " because of recent sessions; they are removed once older than 2 hours");
+        }
+    }
+
+    /**
+     * Opens the shared lock file. A lock taken on the returned channel is released when the
+     * channel is closed.
+     */
+    private FileChannel openLock() throws IOException {
+        return FileChannel.open(root.resolve(".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    private int countSessions() throws IOException {
+        try (Stream<Path> entries = Files.list(sessions)) {
+            return (int) entries.count();
+        }
+    }
+
+    private static void copyProfile(Path source, Path target) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                String name = file.getFileName().toString();
+                if (attrs.isRegularFile() && !SKIPPED_FILES.contains(name) && !name.equals(MARKER)) {
+                    Files.copy(file, target.resolve(source.relativize(file).toString()), LinkOption.NOFOLLOW_LINKS);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+                if (e instanceof NoSuchFileException) {
+                    return FileVisitResult.CONTINUE;
+                }
+                throw e;
+            }
+        });
+    }
+
+    private static long sizeOf(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return 0;
+        }
+        long[] total = new long[1];
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                total[0] += attrs.isRegularFile() ? attrs.size() : 0;
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return total[0];
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path, LinkOption.NOFOLLOW_LINKS).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static String formatBytes(long bytes) {
+        return String.format("%.1f MiB", bytes / (1024.0 * 1024.0));
+    }
+}
@@ -0,0 +1,98 @@
+package com.revature;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BrowserProfileManagerTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path root;
+    private final AtomicInteger builds = new AtomicInteger();
+
+    /** Writes a 400-byte cache entry plus the lock files a running browser leaves behind. */
+    private final BrowserProfileManager.ProfileWarmer warmer = dir -> {
+        builds.incrementAndGet();
+        Files.createDirectories(dir.resolve("Default/Cache"));
+        Files.write(dir.resolve("Default/Cache/data_0"), new byte[400]);
+        Files.write(dir.resolve("SingletonLock"), new byte[1]);
+        Files.write(dir.resolve("Default/LOCK"), new byte[1]);
+    };
+
+    @Before
+    public void setUp() {
+        root = temporaryFolder.getRoot().toPath();
+    }
+
+    @Test
+    public void testTemplateIsBuiltOncePerKeyAndClonedWithoutLockFiles() throws Exception {
+        BrowserProfileManager manager = new BrowserProfileManager(root, 1024 * 1024);
+        manager.ensureTemplate("chrome 1", warmer);
+        manager.ensureTemplate("chrome 1", warmer);
+        assertEquals(1, builds.get());
+
+        Path session = manager.cloneTemplate();
+        assertTrue(Files.exists(session.resolve("Default/Cache/data_0")));
+        assertFalse(Files.exists(session.resolve("SingletonLock")));
+        assertFalse(Files.exists(session.resolve("Default/LOCK")));
+        assertFalse(Files.exists(session.resolve(".prewarmed")));
+
+        manager.release(session);
+        assertFalse(Files.exists(session));
+
+        manager.ensureTemplate("chrome 2", warmer);
+        assertEquals("A new key rebuilds the template.", 2, builds.get());
+    }
+
+    @Test
+    public void testCapRemovesStaleClonesButKeepsTemplate() throws Exception {
+        BrowserProfileManager crashed = new BrowserProfileManager(root, 1000);
+        crashed.ensureTemplate("chrome", warmer);
+        Path stale = crashed.cloneTemplate();
+        Path recent = crashed.cloneTemplate();
+        Files.setLastModifiedTime(stale, FileTime.fromMillis(System.currentTimeMillis() - 3 * 60 * 60 * 1000L));
+
+        // A new run does not know the crashed run's sessions, so both are unused.
+        new BrowserProfileManager(root, 1000).ensureTemplate("chrome", warmer);
+        assertFalse("Stale clones are removed.", Files.exists(stale));
+        assertTrue("Clones that may belong to a running test are kept.", Files.exists(recent));
+        assertEquals("A template that fits in the cap is kept.", 1, builds.get());
+
+        new BrowserProfileManager(root, 300).ensureTemplate("chrome", warmer);
+        assertTrue(Files.exists(recent));
+        assertEquals("A template over the cap on its own is rebuilt.", 2, builds.get());
+    }
+
+    @Test
+    public void testTemplateKeyParts() throws IOException {
+        Path page = temporaryFolder.newFolder("page").toPath();
+        Files.writeString(page.resolve("index.html"), "<script src=\"script.js\"></script>");
+        Files.writeString(page.resolve("script.js"), "let a = 1;");
+        String before = BrowserProfileManager.pageHash(page);
+
+        Files.writeString(page.resolve("Notes.java"), "class Notes {}");
+        assertEquals("Only files the page loads count.", before, BrowserProfileManager.pageHash(page));
+        Files.writeString(page.resolve("script.js"), "let a = 2;");
+        assertNotEquals(before, BrowserProfileManager.pageHash(page));
+
+        Path binary = page.resolve("chrome");
+        Files.write(binary, new byte[10]);
+        String stamp = BrowserProfileManager.fileStamp(binary.toString());
+        Files.write(binary, new byte[20]);
+        assertNotEquals("An in-place upgrade changes the stamp.", stamp, BrowserProfileManager.fileStamp(binary.toString()));
+        assertEquals("-", BrowserProfileManager.fileStamp(null));
+    }
+}
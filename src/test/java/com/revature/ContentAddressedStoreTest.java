@@ -0,0 +1,89 @@
+package com.revature;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ContentAddressedStoreTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path dir;
+
+    @Before
+    public void setUp() {
+        dir = temporaryFolder.getRoot().toPath();
+    }
+
+    @Test
+    public void testIdenticalContentIsStoredOnce() throws IOException {
+        ContentAddressedStore store = new ContentAddressedStore(dir, 1024);
+        String first = store.put(new byte[] { 1, 2, 3 });
+        String second = store.put(new byte[] { 1, 2, 3 });
+
+        assertEquals(first, second);
+        assertEquals(1, store.count());
+        assertEquals(3, store.sizeInBytes());
+        assertArrayEquals(new byte[] { 1, 2, 3 }, Files.readAllBytes(store.get(first)));
+        assertNull(store.get(ContentAddressedStore.sha256Hex(new byte[] { 4 })));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedBlobsAreEvicted() throws IOException {
+        ContentAddressedStore store = new ContentAddressedStore(dir, 250);
+        String a = store.put(new byte[100]);
+        String b = store.put(filled(100, 1));
+        store.get(a);
+        String c = store.put(filled(100, 2));
+
+        assertNotNull(store.get(a));
+        assertNull("The least recently used blob should be evicted.", store.get(b));
+        assertNotNull(store.get(c));
+        assertTrue(store.sizeInBytes() <= 250);
+        assertEquals(2, store.count());
+    }
+
+    @Test
+    public void testStoreReloadsExistingBlobs() throws IOException {
+        ContentAddressedStore store = new ContentAddressedStore(dir, 1024);
+        String hash = store.put(filled(10, 7));
+
+        ContentAddressedStore reopened = new ContentAddressedStore(dir, 1024);
+        assertEquals(1, reopened.count());
+        assertEquals(10, reopened.sizeInBytes());
+        assertArrayEquals(filled(10, 7), Files.readAllBytes(reopened.get(hash)));
+    }
+
+    @Test
+    public void testMissingBlobsAreForgottenOnlyWhileMissing() throws IOException {
+        ContentAddressedStore store = new ContentAddressedStore(dir, 1024);
+        String hash = store.put(filled(10, 3));
+        Files.delete(store.get(hash));
+
+        store.forgetIfMissing(hash);
+        assertNull(store.get(hash));
+        assertEquals(0, store.sizeInBytes());
+
+        store.put(filled(10, 3));
+        store.forgetIfMissing(hash);
+        assertArrayEquals(filled(10, 3), Files.readAllBytes(store.get(hash)));
+    }
+
+    private static byte[] filled(int length, int value) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) value);
+        return bytes;
+    }
+}
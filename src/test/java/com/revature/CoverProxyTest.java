@@ -0,0 +1,190 @@
+package com.revature;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class CoverProxyTest {
+    /** JPEG headers with no image data, which ImageIO fails to decode with an IIOException. */
+    private static final byte[] UNDECODABLE_JPEG = {
+        (byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 16, 'J', 'F', 'I', 'F', 0, 1, 1, 0, 0, 1, 0, 1, 0, 0,
+        (byte) 0xFF, (byte) 0xD9 };
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path dir;
+    private HttpServer upstream;
+    private HttpServer proxyServer;
+    private final AtomicInteger upstreamRequests = new AtomicInteger();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private String proxyUrl;
+
+    @Before
+    public void setUp() throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        dir = temporaryFolder.getRoot().toPath();
+        Map<String, byte[]> covers = Map.of("/b/id/42-L.jpg", jpeg(800, 1200), "/b/id/43-L.jpg", UNDECODABLE_JPEG);
+
+        upstream = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        upstream.createContext("/b/id/", exchange -> {
+            upstreamRequests.incrementAndGet();
+            byte[] cover = covers.get(exchange.getRequestURI().getPath());
+            boolean known = cover != null;
+            exchange.sendResponseHeaders(known ? 200 : 404, known ? cover.length : -1);
+            if (known) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(cover);
+                }
+            }
+            exchange.close();
+        });
+        upstream.start();
+
+        CoverProxy proxy = new CoverProxy(dir, 10 * 1024 * 1024,
+            "http://localhost:" + upstream.getAddress().getPort());
+        proxyServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        proxyServer.createContext(CoverProxy.PATH, proxy);
+        proxyServer.start();
+        proxyUrl = "http://localhost:" + proxyServer.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        proxyServer.stop(0);
+        upstream.stop(0);
+    }
+
+    @Test
+    public void testThumbnailsAreFetchedOnceAndResized() throws Exception {
+        HttpResponse<byte[]> small = get("/covers/42-S.jpg", null);
+        HttpResponse<byte[]> medium = get("/covers/42-M.jpg", null);
+
+        assertEquals(200, small.statusCode());
+        assertEquals(200, medium.statusCode());
+        assertEquals(1, upstreamRequests.get());
+        assertEquals(CoverProxy.Size.S.width, ImageIO.read(new ByteArrayInputStream(small.body())).getWidth());
+        assertEquals(CoverProxy.Size.M.width, ImageIO.read(new ByteArrayInputStream(medium.body())).getWidth());
+        assertEquals("image/jpeg", small.headers().firstValue("Content-Type").orElse(""));
+        assertTrue(small.headers().firstValue("Cache-Control").orElse("").contains("immutable"));
+    }
+
+    @Test
+    public void testStrongEtagRevalidation() throws Exception {
+        HttpResponse<byte[]> first = get("/covers/42-L.jpg", null);
+        String etag = first.headers().firstValue("ETag").orElse("");
+        assertTrue("ETag should be a strong quoted hash.", etag.matches("\"[0-9a-f]{64}\""));
+
+        HttpResponse<byte[]> revalidated = get("/covers/42-L.jpg", etag);
+        assertEquals(304, revalidated.statusCode());
+        assertEquals(0, revalidated.body().length);
+    }
+
+    @Test
+    public void testUnknownCoversAndPaths() throws Exception {
+        assertEquals(404, get("/covers/7-M.jpg", null).statusCode());
+        assertEquals(404, get("/covers/../../etc/passwd", null).statusCode());
+        assertEquals(404, get("/covers/42-XL.jpg", null).statusCode());
+    }
+
+    @Test
+    public void testSmallImagesAreNotScaledUp() throws IOException {
+        byte[] original = jpeg(64, 100);
+        Map<CoverProxy.Size, byte[]> thumbnails = CoverProxy.renderThumbnails(original);
+        for (byte[] thumbnail : thumbnails.values()) {
+            assertSame(original, thumbnail);
+        }
+        assertFalse(HttpHeaderValues.etagMatches(null, "\"a\""));
+        assertTrue(HttpHeaderValues.etagMatches("\"b\", W/\"a\"", "\"a\""));
+    }
+
+    @Test
+    public void testUndecodableCoversAreStoredOnce() throws Exception {
+        HttpResponse<byte[]> first = get("/covers/43-S.jpg", null);
+        HttpResponse<byte[]> second = get("/covers/43-M.jpg", null);
+
+        assertEquals(200, first.statusCode());
+        assertEquals(200, second.statusCode());
+        assertEquals(1, upstreamRequests.get());
+        assertArrayEquals(UNDECODABLE_JPEG, first.body());
+        assertEquals("image/jpeg", first.headers().firstValue("Content-Type").orElse(""));
+    }
+
+    @Test
+    public void testNonJpegCoversAreReencoded() throws IOException {
+        BufferedImage image = new BufferedImage(64, 100, BufferedImage.TYPE_INT_ARGB);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        byte[] original = png.toByteArray();
+        assertEquals("image/png", CoverProxy.contentType(original, original.length));
+
+        for (byte[] thumbnail : CoverProxy.renderThumbnails(original).values()) {
+            assertEquals("image/jpeg", CoverProxy.contentType(thumbnail, thumbnail.length));
+            assertEquals(64, ImageIO.read(new ByteArrayInputStream(thumbnail)).getWidth());
+        }
+    }
+
+    @Test
+    public void testEvictedBlobIsFetchedAgain() throws Exception {
+        assertEquals(200, get("/covers/42-S.jpg", null).statusCode());
+        try (Stream<Path> blobs = Files.walk(dir.resolve("blobs"))) {
+            for (Path blob : blobs.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                Files.delete(blob);
+            }
+        }
+
+        HttpResponse<byte[]> refetched = get("/covers/42-S.jpg", null);
+        assertEquals(200, refetched.statusCode());
+        assertEquals(CoverProxy.Size.S.width, ImageIO.read(new ByteArrayInputStream(refetched.body())).getWidth());
+        assertEquals(2, upstreamRequests.get());
+    }
+
+    private HttpResponse<byte[]> get(String path, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(proxyUrl + path));
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static byte[] jpeg(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x * 255 / width) << 16 | (y * 255 / height) << 8);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,79 @@
+package com.revature;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class IsbnTableTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testIsbnNormalization() {
+        assertEquals(9780747538493L, Isbn.toIsbn13("0747538492"));
+        assertEquals(9780747538493L, Isbn.toIsbn13("0-7475-3849-2"));
+        assertEquals(9780747538493L, Isbn.toIsbn13("978-0-7475-3849-3"));
+        assertEquals(9780804429573L, Isbn.toIsbn13("080442957X"));
+        assertEquals(9780804429573L, Isbn.toIsbn13("0-8044-2957-x"));
+
+        assertEquals("Bad check digit", Isbn.INVALID, Isbn.toIsbn13("0747538491"));
+        assertEquals("Bad check digit", Isbn.INVALID, Isbn.toIsbn13("9780747538494"));
+        assertEquals("Not a Bookland prefix", Isbn.INVALID, Isbn.toIsbn13("1234567890128"));
+        assertEquals(Isbn.INVALID, Isbn.toIsbn13("07475X8492"));
+        assertEquals(Isbn.INVALID, Isbn.toIsbn13("harry potter"));
+        assertEquals(Isbn.INVALID, Isbn.toIsbn13(""));
+        assertEquals(Isbn.INVALID, Isbn.toIsbn13(null));
+
+        assertEquals("9780747538493", Isbn.format(9780747538493L));
+    }
+
+    @Test
+    public void testBuildAndLookup() {
+        int count = 100_000;
+        long[] keys = new long[count];
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = Isbn.withCheckDigit(978_000_000_000L + i * 7L);
+            values[i] = i * 16L;
+        }
+
+        IsbnTable table = IsbnTable.build(keys, values, count);
+        assertEquals(count, table.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(values[i], table.get(keys[i]));
+        }
+        assertEquals(IsbnTable.NOT_FOUND, table.get(Isbn.withCheckDigit(978_000_000_001L)));
+        assertEquals(IsbnTable.NOT_FOUND, table.get(Isbn.INVALID));
+    }
+
+    @Test
+    public void testDuplicateKeysKeepFirstValue() {
+        long isbn = Isbn.toIsbn13("0747538492");
+        IsbnTable table = IsbnTable.build(new long[] { isbn, isbn }, new long[] { 8, 24 }, 2);
+
+        assertEquals(1, table.size());
+        assertEquals(8, table.get(isbn));
+    }
+
+    @Test
+    public void testSnapshotRoundTrip() throws IOException {
+        long[] keys = { 9780747538493L, 9781472539342L, 9780804429573L };
+        long[] values = { 0, 8, 16 };
+        Path file = temporaryFolder.getRoot().toPath().resolve("isbn.tbl");
+        IsbnTable built = IsbnTable.build(keys, values, keys.length);
+        built.save(file);
+
+        IsbnTable mapped = IsbnTable.map(file);
+        assertEquals(built.size(), mapped.size());
+        assertEquals(built.capacity(), mapped.capacity());
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(values[i], mapped.get(keys[i]));
+        }
+        assertEquals(IsbnTable.NOT_FOUND, mapped.get(9781725757264L));
+    }
+}
@@ -0,0 +1,187 @@
+package com.revature;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+public class SearchGatewayTest {
+
+    private static CachedResponse response(String body) {
+        return CachedResponse.of("application/json", body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testCanonicalQueryIgnoresOrderCaseAndUnknownParams() {
+        String a = SearchGateway.canonicalQuery("title=Harry%20%20Potter&limit=10&callback=x");
+        String b = SearchGateway.canonicalQuery("limit=10&title=+harry+potter+");
+
+        assertEquals(a, b);
+        assertFalse("Unsupported parameters must not be forwarded.", a.contains("callback"));
+        assertEquals("isbn=9781472539342", SearchGateway.canonicalQuery("isbn=978-1-4725-3934-2"));
+        assertEquals("", SearchGateway.canonicalQuery(null));
+    }
+
+    @Test
+    public void testAcceptsGzip() {
+        assertTrue(HttpHeaderValues.acceptsGzip("gzip, deflate, br"));
+        assertTrue(HttpHeaderValues.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+        assertFalse(HttpHeaderValues.acceptsGzip("gzip;q=0"));
+        assertFalse(HttpHeaderValues.acceptsGzip("identity"));
+        assertFalse(HttpHeaderValues.acceptsGzip(null));
+        assertTrue("An explicit coding overrides *", HttpHeaderValues.acceptsGzip("*;q=0, gzip"));
+        assertFalse(HttpHeaderValues.acceptsGzip("*, gzip;q=0"));
+        assertTrue(HttpHeaderValues.acceptsGzip("br, *"));
+        assertFalse(HttpHeaderValues.acceptsEncoding("gzip, *;q=0", "br"));
+    }
+
+    @Test
+    public void testCacheExpiresEntriesAfterTtl() {
+        AtomicLong now = new AtomicLong();
+        SearchResponseCache cache = new SearchResponseCache(1024 * 1024, 1000, now::get);
+        CachedResponse cached = response("{\"docs\":[]}");
+
+        cache.put("title=test", cached);
+        assertSame(cached, cache.get("title=test"));
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertNull("Expired entries should not be served.", cache.get("title=test"));
+        assertEquals(0, cache.sizeInBytes());
+    }
+
+    @Test
+    public void testCacheEvictsLeastRecentlyUsedWhenOverBudget() {
+        CachedResponse sample = response("0123456789012345678901234567890123456789");
+        SearchResponseCache cache = new SearchResponseCache(sample.weight() * 2, 60_000);
+
+        cache.put("a", sample);
+        cache.put("b", response("0123456789012345678901234567890123456789"));
+        cache.get("a");
+        cache.put("c", response("0123456789012345678901234567890123456789"));
+
+        assertNotNull(cache.get("a"));
+        assertNull("The least recently used entry should be evicted.", cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertTrue(cache.sizeInBytes() <= sample.weight() * 2);
+    }
+
+    @Test
+    public void testSingleFlightCoalescesConcurrentLoads() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> singleFlight.execute("title=test", () -> {
+                    loads.incrementAndGet();
+                    release.await(5, TimeUnit.SECONDS);
+                    return "result";
+                })));
+            }
+            // Only release the load once every other caller is blocked on it, so no caller can
+            // arrive after it finishes and start a second load.
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (singleFlight.waiterCount("title=test") < callers - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(callers - 1, singleFlight.waiterCount("title=test"));
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("result", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals("Identical concurrent queries should trigger one load.", 1, loads.get());
+            assertEquals(0, singleFlight.inFlightCount());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testHandleSearchOverHttp() throws Exception {
+        AtomicInteger searches = new AtomicInteger();
+        SearchSource source = query -> {
+            searches.incrementAndGet();
+            if (query.contains("fail")) {
+                throw new IOException("upstream down");
+            }
+            return response("{\"q\":\"" + query + "\"}");
+        };
+        SearchGateway gateway = new SearchGateway(0, source, new SearchResponseCache(1024 * 1024, 60_000), 300);
+        gateway.start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            String base = "http://127.0.0.1:" + gateway.port() + SearchGateway.SEARCH_PATH;
+
+            HttpResponse<byte[]> miss = client.send(HttpRequest.newBuilder(URI.create(base + "?title=Dune&limit=5"))
+                .header("Accept-Encoding", "gzip").build(), HttpResponse.BodyHandlers.ofByteArray());
+            assertEquals(200, miss.statusCode());
+            assertEquals("MISS", miss.headers().firstValue("X-Cache").orElse(null));
+            assertEquals("gzip", miss.headers().firstValue("Content-Encoding").orElse(null));
+            assertEquals("*", miss.headers().firstValue("Access-Control-Allow-Origin").orElse(null));
+            assertEquals("public, max-age=300", miss.headers().firstValue("Cache-Control").orElse(null));
+            assertEquals("{\"q\":\"limit=5&title=dune\"}", gunzip(miss.body()));
+
+            HttpResponse<String> hit = client.send(HttpRequest.newBuilder(URI.create(base + "?limit=5&title=dune")).build(),
+                HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, hit.statusCode());
+            assertEquals("HIT", hit.headers().firstValue("X-Cache").orElse(null));
+            assertFalse(hit.headers().firstValue("Content-Encoding").isPresent());
+            assertEquals("{\"q\":\"limit=5&title=dune\"}", hit.body());
+            assertEquals(1, searches.get());
+
+            HttpResponse<String> preflight = client.send(HttpRequest.newBuilder(URI.create(base))
+                .method("OPTIONS", HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(204, preflight.statusCode());
+            assertEquals("GET, HEAD, OPTIONS", preflight.headers().firstValue("Access-Control-Allow-Methods").orElse(null));
+
+            HttpResponse<String> post = client.send(HttpRequest.newBuilder(URI.create(base + "?title=dune"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(405, post.statusCode());
+
+            HttpResponse<String> empty = client.send(HttpRequest.newBuilder(URI.create(base + "?callback=x")).build(),
+                HttpResponse.BodyHandlers.ofString());
+            assertEquals(400, empty.statusCode());
+
+            HttpResponse<String> failed = client.send(HttpRequest.newBuilder(URI.create(base + "?title=fail")).build(),
+                HttpResponse.BodyHandlers.ofString());
+            assertEquals(502, failed.statusCode());
+            assertEquals("no-store", failed.headers().firstValue("Cache-Control").orElse(null));
+        } finally {
+            gateway.stop();
+        }
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
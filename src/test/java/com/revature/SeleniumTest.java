@@ -8,6 +8,7 @@ import static org.junit.Assert.fail;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.Arrays;
@@ -40,6 +41,8 @@ public class SeleniumTest {
     private static final Logger logger = Logger.getLogger(SeleniumTest.class.getName());
     private Process httpServerProcess;
     private String browserType;
+    private BrowserProfileManager profileManager;
+    private Path profileDir;
     
     private static final String OS_NAME = System.getProperty("os.name").toLowerCase();
     private static final String OS_ARCH = System.getProperty("os.arch").toLowerCase();
@@ -47,6 +50,10 @@ public class SeleniumTest {
     private static final boolean IS_WINDOWS = OS_NAME.contains("windows");
     private static final boolean IS_LINUX = OS_NAME.contains("linux");
     private static final boolean IS_MAC = OS_NAME.contains("mac");
+
+    // The prewarmed profile's HTTP and code caches are keyed by origin, so the page is served
+    // from the same port every time unless that port is taken.
+    private static final int PREFERRED_HTTP_PORT = Integer.getInteger("bookfinder.http.port", 8765);
   
     @Before
     public void setUp() {
@@ -59,7 +66,8 @@ public class SeleniumTest {
             File htmlFile = findHtmlFile();
             String htmlUrl = determineHtmlUrl(htmlFile);
             
-            webDriver = createWebDriver(browserConfig);
+            profileDir = prepareProfile(browserConfig, htmlFile, htmlUrl);
+            webDriver = createWebDriver(browserConfig, profileDir.toString());
             
             wait = new WebDriverWait(webDriver, Duration.ofSeconds(30));
             
@@ -324,7 +332,11 @@ public class SeleniumTest {
     }
     
     private String startHttpServer(File htmlFile) throws Exception {
-        int port = 8000 + (int)(Math.random() * 1000);
+        int port = PREFERRED_HTTP_PORT;
+        if (!isPortFree(port)) {
+            port = 8000 + (int)(Math.random() * 1000);
+            System.out.println("Port " + PREFERRED_HTTP_PORT + " is busy, the prewarmed profile's caches will not apply");
+        }
         String directory = htmlFile.getParent();
         String fileName = htmlFile.getName();
         
@@ -370,20 +382,59 @@ public class SeleniumTest {
         throw new RuntimeException("HTTP server failed to respond");
     }
     
-    private WebDriver createWebDriver(BrowserConfig config) {
+    private static boolean isPortFree(int port) {
+        try {
+            new java.net.ServerSocket(port).close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    private Path prepareProfile(BrowserConfig config, File htmlFile, String htmlUrl) throws Exception {
+        System.out.println("\n=== PREPARING BROWSER PROFILE ===");
+        profileManager = BrowserProfileManager.getInstance();
+        try {
+            String templateKey = config.browserType + " " + config.binaryPath
+                + " " + BrowserProfileManager.fileStamp(config.binaryPath)
+                + " " + BrowserProfileManager.fileStamp(config.driverPath)
+                + " " + BrowserProfileManager.pageHash(htmlFile.getAbsoluteFile().toPath().getParent());
+            profileManager.ensureTemplate(templateKey, dir -> prewarmProfile(config, dir, htmlUrl));
+        } catch (Exception e) {
+            System.out.println("Could not build profile template, using an empty profile: " + e.getMessage());
+        }
+        Path profile = profileManager.cloneTemplate();
+        System.out.println("Profile: " + profile);
+        return profile;
+    }
+    
+    private void prewarmProfile(BrowserConfig config, Path dir, String htmlUrl) {
+        WebDriver warmupDriver = createWebDriver(config, dir.toString());
+        try {
+            warmupDriver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(60));
+            warmupDriver.get(htmlUrl);
+            new WebDriverWait(warmupDriver, Duration.ofSeconds(30)).until(driver -> ((JavascriptExecutor) driver)
+                    .executeScript("return document.readyState")
+                    .equals("complete"));
+        } finally {
+            warmupDriver.quit();
+        }
+    }
+    
+    private WebDriver createWebDriver(BrowserConfig config, String userDataDir) {
         System.out.println("\n=== CREATING WEBDRIVER ===");
         System.out.println("Browser: " + config.browserType);
         System.out.println("Driver: " + config.driverPath);
         System.out.println("Binary: " + config.binaryPath);
         
         if ("edge".equals(config.browserType)) {
-            return createEdgeDriver(config);
+            return createEdgeDriver(config, userDataDir);
         } else {
-            return createChromeDriver(config);
+            return createChromeDriver(config, userDataDir);
         }
     }
     
-    private WebDriver createChromeDriver(BrowserConfig config) {
+    private WebDriver createChromeDriver(BrowserConfig config, String userDataDir) {
         System.setProperty("webdriver.chrome.driver", config.driverPath);
         
         ChromeOptions options = new ChromeOptions();
@@ -392,7 +443,7 @@ public class SeleniumTest {
             options.setBinary(config.binaryPath);
         }
         
-        options.addArguments(getChromeArguments());
+        options.addArguments(getChromeArguments(userDataDir));
         
         LoggingPreferences logPrefs = new LoggingPreferences();
         logPrefs.enable(LogType.BROWSER, Level.ALL);
@@ -407,7 +458,7 @@ public class SeleniumTest {
         return new ChromeDriver(service, options);
     }
     
-    private WebDriver createEdgeDriver(BrowserConfig config) {
+    private WebDriver createEdgeDriver(BrowserConfig config, String userDataDir) {
         System.setProperty("webdriver.edge.driver", config.driverPath);
         
         EdgeOptions options = new EdgeOptions();
@@ -416,7 +467,7 @@ public class SeleniumTest {
             options.setBinary(config.binaryPath);
         }
         
-        options.addArguments(getEdgeArguments());
+        options.addArguments(getEdgeArguments(userDataDir));
         
         LoggingPreferences logPrefs = new LoggingPreferences();
         logPrefs.enable(LogType.BROWSER, Level.ALL);
@@ -431,15 +482,15 @@ public class SeleniumTest {
         return new EdgeDriver(service, options);
     }
     
-    private String[] getChromeArguments() {
-        return getCommonBrowserArguments();
+    private String[] getChromeArguments(String userDataDir) {
+        return getCommonBrowserArguments(userDataDir);
     }
     
-    private String[] getEdgeArguments() {
-        return getCommonBrowserArguments();
+    private String[] getEdgeArguments(String userDataDir) {
+        return getCommonBrowserArguments(userDataDir);
     }
     
-    private String[] getCommonBrowserArguments() {
+    private String[] getCommonBrowserArguments(String userDataDir) {
         String[] baseArgs = {
             "--headless=new",
             "--no-sandbox",
@@ -450,7 +501,7 @@ public class SeleniumTest {
             "--disable-web-security",
             "--allow-file-access-from-files",
             "--allow-running-insecure-content",
-            "--user-data-dir=/tmp/browser-test-" + System.currentTimeMillis(),
+            "--user-data-dir=" + userDataDir,
             "--disable-features=TranslateUI,VizDisplayCompositor",
             "--disable-background-timer-throttling",
             "--disable-backgrounding-occluded-windows",
@@ -512,12 +563,19 @@ public class SeleniumTest {
                 System.err.println("Error cleaning up WebDriver: " + e.getMessage());
             }
         }
+        if (profileManager != null) {
+            profileManager.release(profileDir);
+            profileDir = null;
+        }
     }
 
     @After
     public void tearDown() {
         System.out.println("\n=== TEARDOWN ===");
         cleanup();
+        if (profileManager != null) {
+            profileManager.printUsage();
+        }
         System.out.println("Teardown completed");
     }
     
@@ -602,16 +660,15 @@ public class SeleniumTest {
 
         wait.until(ExpectedConditions.visibilityOfElementLocated(By.id("book-list")));
 
-        WebElement bookList = webDriver.findElement(By.id("book-list"));
         wait.until(ExpectedConditions.presenceOfAllElementsLocatedBy(By.cssSelector("#book-list > li")));
-        List<WebElement> books = bookList.findElements(By.tagName("li"));
+        List<BookListSnapshot.Book> books = BookListSnapshot.capture(webDriver, "#book-list");
         assertFalse("No books displayed.", books.isEmpty());
 
         books.forEach(book -> {
-            assertNotNull(book.findElement(By.className("title-element")).getText());
-            assertNotNull(book.findElement(By.className("cover-element")).isDisplayed());
-            assertNotNull(book.findElement(By.className("rating-element")).getText());
-            assertNotNull(book.findElement(By.className("ebook-element")).getText());
+            assertNotNull("Missing title-element: " + book, book.title);
+            assertTrue("Missing cover-element: " + book, book.hasCover);
+            assertNotNull("Missing rating-element: " + book, book.rating);
+            assertNotNull("Missing ebook-element: " + book, book.ebook);
         });
     }
 
@@ -727,16 +784,17 @@ public class SeleniumTest {
         }
         button.click();
 
-        WebElement bookList = webDriver.findElement(By.id("book-list"));
-        List<WebElement> books = bookList.findElements(By.tagName("li"));
+        List<BookListSnapshot.Book> books = BookListSnapshot.capture(webDriver, "#book-list");
         assertFalse("No books displayed.", books.isEmpty());
 
         for (int i = 0; i < books.size() - 1; i++) {
-            String ratingA = books.get(i).findElement(By.className("rating-element")).getText();
+            String ratingA = books.get(i).rating;
+            assertNotNull("Missing rating-element: " + books.get(i), ratingA);
             float ratingOfCurrentBook = Float
                     .parseFloat(ratingA.replaceAll("[^0-9.]", ""));
 
-            String ratingB = books.get(i + 1).findElement(By.className("rating-element")).getText();
+            String ratingB = books.get(i + 1).rating;
+            assertNotNull("Missing rating-element: " + books.get(i + 1), ratingB);
             System.out.println(ratingA + " and " + ratingB);
             float ratingOfNextBook = Float
                     .parseFloat(ratingB.replaceAll("[^0-9.]", ""));
@@ -781,14 +839,14 @@ public class SeleniumTest {
 
         checkbox.click();
 
-        WebElement bookList = webDriver.findElement(By.id("book-list"));
-        List<WebElement> books = bookList.findElements(By.tagName("li"));
+        List<BookListSnapshot.Book> books = BookListSnapshot.capture(webDriver, "#book-list");
         assertFalse("No books displayed.", books.isEmpty());
 
         for (int i = 0; i < books.size() - 1; i++) {
-            WebElement book = books.get(i);
-            String ebookValue = book.findElement(By.className("ebook-element")).getText().toLowerCase();
-            if (book.isDisplayed() && !ebookValue.contains("borrowable")) {
+            BookListSnapshot.Book book = books.get(i);
+            assertNotNull("Missing ebook-element: " + book, book.ebook);
+            String ebookValue = book.ebook.toLowerCase();
+            if (book.displayed && !ebookValue.contains("borrowable")) {
                 fail("A book's ebook value is not 'borrowable'");
             }
         }